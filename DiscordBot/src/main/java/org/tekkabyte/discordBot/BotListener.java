@@ -8,28 +8,31 @@ import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEve
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.jetbrains.annotations.NotNull;
+import org.tekkabyte.discordLink.Bridge.BridgeService;
+import org.tekkabyte.discordLink.data.LinkRedemption;
+import org.tekkabyte.discordLink.data.SupabaseData;
+import org.tekkabyte.discordLink.utils.DiscordText;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class BotListener extends ListenerAdapter {
 
-    private final DiscordBot plugin;
-    private final SupabaseRest supabase;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
 
-    public BotListener(DiscordBot plugin, SupabaseRest supabase) {
+    private final DiscordBot plugin;
+    private final SupabaseData data;
+    private final HandlerExecutor handlers;
+    private final PendingCodeIndex codeIndex;
+
+    /**
+     * codeIndex may be null, in which case every code is checked against Supabase.
+     */
+    public BotListener(DiscordBot plugin, SupabaseData data, HandlerExecutor handlers, PendingCodeIndex codeIndex) {
         this.plugin = plugin;
-        this.supabase = supabase;
-    }
-
-    private static String sanitizeContent(String text) {
-        String s = String.valueOf(text == null ? "" : text);
-
-        s = s.replace("@everyone", "@\u200Beveryone")
-                .replace("@here", "@\u200Bhere");
-
-        s = s.replace("<@&", "<@\u200B&")
-                .replace("<@!", "<@\u200B!")
-                .replace("<@", "<@\u200B");
-
-        return s.trim();
+        this.data = data;
+        this.handlers = handlers;
+        this.codeIndex = codeIndex;
     }
 
     private static boolean isSixCharCode(String s) {
@@ -42,15 +45,7 @@ public class BotListener extends ListenerAdapter {
             if (!event.isFromGuild()) return;
             if (!event.getName().equalsIgnoreCase("online")) return;
 
-            supabase.insertBridgeEvent(plugin.getServerId(), "online",
-                    supabase.payload()
-                            .add("by", event.getMember() != null ? event.getMember().getEffectiveName() : event.getUser().getName())
-                            .add("discord_id", event.getUser().getId())
-                            .add("ts", System.currentTimeMillis())
-                            .build()
-            );
-
-            event.reply("👥 Requested online player list.").setEphemeral(true).queue();
+            handlers.submit("user:" + event.getUser().getId(), "online-slash", () -> requestOnlineList(event));
         } catch (Exception e) {
             plugin.getLogger().warning("interactionCreate(/online) failed: " + e.getMessage());
             try {
@@ -78,51 +73,7 @@ public class BotListener extends ListenerAdapter {
 
                 msg.getMessage().delete().queue(ok -> {}, err -> {});
 
-                var pending = supabase.fetchPendingByCode(code);
-                if (pending == null) {
-                    msg.getChannel().sendMessage("❌ That code is invalid or already used.").queue();
-                    return;
-                }
-
-                if (pending.isExpired()) {
-                    supabase.deletePendingCode(code);
-                    msg.getChannel().sendMessage("⌛ That code expired. Run `/link` in Minecraft again.").queue();
-                    return;
-                }
-
-                if (plugin.isLinkOneToOne()) {
-                    if (supabase.isMinecraftAlreadyLinked(pending.minecraftUuid())) {
-                        supabase.deletePendingCode(code);
-                        msg.getChannel().sendMessage("❌ That Minecraft account is already linked.").queue();
-                        return;
-                    }
-                    if (supabase.isDiscordAlreadyLinked(msg.getAuthor().getId())) {
-                        msg.getChannel().sendMessage("❌ Your Discord account is already linked to a Minecraft account.").queue();
-                        return;
-                    }
-                }
-
-                supabase.upsertAccountLink(
-                        pending.minecraftUuid(),
-                        pending.minecraftUsername(),
-                        msg.getAuthor().getId(),
-                        msg.getAuthor().getName() + "#" + msg.getAuthor().getDiscriminator()
-                );
-                supabase.deletePendingCode(code);
-
-                String roleId = plugin.getLinkRoleId();
-                if (roleId != null) {
-                    Member member = msg.getMember();
-                    Role role = msg.getGuild().getRoleById(roleId);
-
-                    if (member != null && role != null) {
-                        msg.getGuild().addRoleToMember(member, role)
-                                .reason("Minecraft account linked")
-                                .queue(ok -> {}, err -> plugin.getLogger().warning("Failed to grant role: " + err.getMessage()));
-                    }
-                }
-                String roleText = (roleId != null) ? " and granted the linked role." : ".";
-                msg.getChannel().sendMessage("✅ Linked **" + pending.minecraftUsername() + "** to <@" + msg.getAuthor().getId() + ">" + roleText).queue();
+                handlers.submit("user:" + msg.getAuthor().getId(), "link", () -> redeemLinkCode(msg, code));
                 return;
             }
 
@@ -130,34 +81,10 @@ public class BotListener extends ListenerAdapter {
                 String raw = msg.getMessage().getContentRaw().trim();
 
                 if (raw.equalsIgnoreCase("!online")) {
-                    supabase.insertBridgeEvent(plugin.getServerId(), "online",
-                            supabase.payload()
-                                    .add("by", msg.getMember() != null ? msg.getMember().getEffectiveName() : msg.getAuthor().getName())
-                                    .add("discord_id", msg.getAuthor().getId())
-                                    .add("ts", System.currentTimeMillis())
-                                    .build()
-                    );
-                    msg.getMessage().addReaction(Emoji.fromUnicode("👥")).queue();
-                    return;
+                    handlers.submit("channel:" + channelId, "online", () -> requestOnlineList(msg));
+                } else {
+                    handlers.submit("channel:" + channelId, "chat", () -> relayChat(msg, raw));
                 }
-
-                StringBuilder attachmentText = new StringBuilder();
-                msg.getMessage().getAttachments().forEach(a -> attachmentText.append("\n").append(a.getUrl()));
-
-                String content = sanitizeContent(raw + attachmentText);
-                if (content.isEmpty()) return;
-
-                String author = msg.getMember() != null ? msg.getMember().getEffectiveName() : msg.getAuthor().getName();
-
-                supabase.insertBridgeEvent(plugin.getServerId(), "chat",
-                        supabase.payload()
-                                .add("author", author)
-                                .add("content", content)
-                                .add("ts", System.currentTimeMillis())
-                                .add("discord_id", msg.getAuthor().getId())
-                                .add("discord_tag", msg.getAuthor().getName() + "#" + msg.getAuthor().getDiscriminator())
-                                .build()
-                );
                 return;
             }
 
@@ -168,24 +95,7 @@ public class BotListener extends ListenerAdapter {
                 String text = msg.getMessage().getContentRaw();
                 if (!text.startsWith("!mc ")) return;
 
-                Member member = msg.getMember();
-                if (member == null || !member.hasPermission(Permission.ADMINISTRATOR)) {
-                    msg.getMessage().reply("❌ You must have Administrator to run Minecraft commands.").queue();
-                    return;
-                }
-
-                String command = text.substring(4).trim();
-                if (command.isEmpty()) return;
-
-                supabase.insertBridgeEvent(plugin.getServerId(), "command",
-                        supabase.payload()
-                                .add("command", command)
-                                .add("by", member.getEffectiveName())
-                                .add("ts", System.currentTimeMillis())
-                                .add("discord_id", msg.getAuthor().getId())
-                                .build()
-                );
-                msg.getMessage().addReaction(Emoji.fromUnicode("✅")).queue();
+                handlers.submit("channel:" + channelId, "command", () -> relayCommand(msg, text));
             }
 
         } catch (Exception e) {
@@ -193,4 +103,174 @@ public class BotListener extends ListenerAdapter {
             e.printStackTrace();
         }
     }
+
+    private CompletableFuture<?> requestOnlineList(SlashCommandInteractionEvent event) {
+        String by = event.getMember() != null ? event.getMember().getEffectiveName() : event.getUser().getName();
+
+        BridgeService local = plugin.getLocalBridge();
+        if (local != null && local.publishOnline(by)) {
+            event.reply("👥 Requested online player list.").setEphemeral(true).queue();
+            return DONE;
+        }
+
+        // the remote insert can take longer than Discord's three seconds, so acknowledge first
+        return event.deferReply(true).submit().thenCompose(hook -> data.bridgeEvents().insert(plugin.getServerId(), "online",
+                data.bridgeEvents().payload()
+                        .add("by", by)
+                        .add("discord_id", event.getUser().getId())
+                        .add("ts", System.currentTimeMillis())
+                        .build()
+        ).handle((ok, err) -> {
+            if (err == null) {
+                hook.editOriginal("👥 Requested online player list.").queue();
+            } else {
+                plugin.getLogger().warning("interactionCreate(/online) failed: " + cause(err).getMessage());
+                hook.editOriginal("❌ Failed to request online list.").queue();
+            }
+            return null;
+        }));
+    }
+
+    private CompletableFuture<?> requestOnlineList(MessageReceivedEvent msg) {
+        String by = msg.getMember() != null ? msg.getMember().getEffectiveName() : msg.getAuthor().getName();
+
+        BridgeService local = plugin.getLocalBridge();
+        if (local != null && local.publishOnline(by)) {
+            msg.getMessage().addReaction(Emoji.fromUnicode("👥")).queue();
+            return DONE;
+        }
+
+        return data.bridgeEvents().insert(plugin.getServerId(), "online",
+                data.bridgeEvents().payload()
+                        .add("by", by)
+                        .add("discord_id", msg.getAuthor().getId())
+                        .add("ts", System.currentTimeMillis())
+                        .build()
+        ).thenRun(() -> msg.getMessage().addReaction(Emoji.fromUnicode("👥")).queue());
+    }
+
+    private CompletableFuture<?> relayChat(MessageReceivedEvent msg, String raw) {
+        StringBuilder attachmentText = new StringBuilder();
+        msg.getMessage().getAttachments().forEach(a -> attachmentText.append("\n").append(a.getUrl()));
+
+        String content = DiscordText.breakMentions(raw + attachmentText);
+        if (content.isEmpty()) return DONE;
+
+        String author = msg.getMember() != null ? msg.getMember().getEffectiveName() : msg.getAuthor().getName();
+
+        BridgeService local = plugin.getLocalBridge();
+        if (local != null && local.publishChat(author, content)) return DONE;
+
+        return data.bridgeEvents().insert(plugin.getServerId(), "chat",
+                data.bridgeEvents().payload()
+                        .add("author", author)
+                        .add("content", content)
+                        .add("ts", System.currentTimeMillis())
+                        .add("discord_id", msg.getAuthor().getId())
+                        .add("discord_tag", msg.getAuthor().getName() + "#" + msg.getAuthor().getDiscriminator())
+                        .build()
+        );
+    }
+
+    private CompletableFuture<?> relayCommand(MessageReceivedEvent msg, String text) {
+        Member member = msg.getMember();
+        if (member == null || !member.hasPermission(Permission.ADMINISTRATOR)) {
+            msg.getMessage().reply("❌ You must have Administrator to run Minecraft commands.").queue();
+            return DONE;
+        }
+
+        String command = text.substring(4).trim();
+        if (command.isEmpty()) return DONE;
+
+        BridgeService local = plugin.getLocalBridge();
+        if (local != null && local.publishCommand(command, member.getEffectiveName())) {
+            msg.getMessage().addReaction(Emoji.fromUnicode("✅")).queue();
+            return DONE;
+        }
+
+        return data.bridgeEvents().insert(plugin.getServerId(), "command",
+                data.bridgeEvents().payload()
+                        .add("command", command)
+                        .add("by", member.getEffectiveName())
+                        .add("ts", System.currentTimeMillis())
+                        .add("discord_id", msg.getAuthor().getId())
+                        .build()
+        ).whenComplete((ok, err) -> {
+            if (err == null) msg.getMessage().addReaction(Emoji.fromUnicode("✅")).queue();
+            else msg.getMessage().reply("❌ Failed to send the command to Minecraft.").queue();
+        });
+    }
+
+    /**
+     * Redeems the code in one Supabase call unless the local index knows it is not live;
+     * failures are logged by the handler executor.
+     */
+    private CompletableFuture<Void> redeemLinkCode(MessageReceivedEvent msg, String code) {
+        if (codeIndex == null) return redeem(msg, code);
+
+        return codeIndex.mightBeValid(code).thenCompose(live -> {
+            if (live) return redeem(msg, code);
+            msg.getChannel().sendMessage(LinkRedemption.Outcome.INVALID.failureReply()).queue();
+            return DONE;
+        });
+    }
+
+    private CompletableFuture<Void> redeem(MessageReceivedEvent msg, String code) {
+        String discordId = msg.getAuthor().getId();
+        String discordTag = msg.getAuthor().getName() + "#" + msg.getAuthor().getDiscriminator();
+
+        return data.pendingCodes().redeem(code, discordId, discordTag, plugin.isLinkOneToOne()).thenAccept(result -> {
+            // only a Discord-side conflict leaves the code in place
+            if (codeIndex != null && result.outcome() != LinkRedemption.Outcome.DISCORD_ALREADY_LINKED) {
+                codeIndex.forget(code);
+            }
+            if (result.outcome() == LinkRedemption.Outcome.LINKED) {
+                onLinked(msg, result);
+            } else {
+                msg.getChannel().sendMessage(result.outcome().failureReply()).queue();
+            }
+        });
+    }
+
+    private void onLinked(MessageReceivedEvent msg, LinkRedemption result) {
+        String roleId = plugin.getLinkRoleId();
+        if (roleId != null) {
+            Member member = msg.getMember();
+            Role role = msg.getGuild().getRoleById(roleId);
+
+            if (member != null && role != null) {
+                msg.getGuild().addRoleToMember(member, role)
+                        .reason("Minecraft account linked")
+                        .queue(ok -> {}, err -> plugin.getLogger().warning("Failed to grant role: " + err.getMessage()));
+            }
+        }
+        String roleText = (roleId != null) ? " and granted the linked role." : ".";
+        msg.getChannel().sendMessage("✅ Linked **" + result.minecraftUsername() + "** to <@" + msg.getAuthor().getId() + ">" + roleText).queue();
+
+        announceLinked(result.minecraftUuid());
+    }
+
+    /**
+     * Lets DiscordLink drop the player's cached code so /link answers "already linked".
+     */
+    private void announceLinked(String minecraftUuid) {
+        if (minecraftUuid == null) return;
+
+        BridgeService local = plugin.getLocalBridge();
+        if (local != null && local.publishLinked(minecraftUuid)) return;
+
+        data.bridgeEvents().insert(plugin.getServerId(), "linked",
+                data.bridgeEvents().payload()
+                        .add("minecraft_uuid", minecraftUuid)
+                        .add("ts", System.currentTimeMillis())
+                        .build()
+        ).exceptionally(err -> {
+            plugin.getLogger().warning("Failed to announce link of " + minecraftUuid + ": " + cause(err).getMessage());
+            return null;
+        });
+    }
+
+    private static Throwable cause(Throwable err) {
+        return (err instanceof CompletionException && err.getCause() != null) ? err.getCause() : err;
+    }
 }
\ No newline at end of file
@@ -6,6 +6,9 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.tekkabyte.discordLink.Bridge.BridgeService;
+import org.tekkabyte.discordLink.data.SupabaseData;
+import org.tekkabyte.discordLink.utils.TimingWheel;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -13,9 +16,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class DiscordBot extends JavaPlugin {
 
     private volatile JDA jda;
-    private SupabaseRest supabase;
+    private SupabaseData data;
+    private HandlerExecutor handlers;
+    private PendingCodeIndex codeIndex;
 
     private String serverId;
+    private boolean preferLocalBridge;
 
     private String discordToken;
     private String clientId;
@@ -39,6 +45,7 @@ public class DiscordBot extends JavaPlugin {
         shuttingDown.set(false);
 
         serverId = getConfig().getString("bridge.server-id", "").trim();
+        preferLocalBridge = getConfig().getBoolean("bridge.prefer-local", true);
 
         discordToken = getConfig().getString("discord.token", "").trim();
         clientId = getConfig().getString("discord.client-id", "").trim();
@@ -68,7 +75,46 @@ public class DiscordBot extends JavaPlugin {
             return;
         }
 
-        supabase = new SupabaseRest(supaUrl, supaKey);
+        long timeoutMillis = Math.max(1L, getConfig().getLong("supabase.request-timeout-millis", 5000L));
+        int maxRetries = Math.max(0, getConfig().getInt("supabase.max-retries", 2));
+        data = SupabaseData.open(supaUrl, supaKey, timeoutMillis, maxRetries);
+        if (data.getTimeoutMillis() != timeoutMillis || data.getMaxRetries() != maxRetries) {
+            // the instance is shared with DiscordLink, which opened it first
+            getLogger().warning("supabase.request-timeout-millis/max-retries (" + timeoutMillis + "ms, " + maxRetries
+                    + ") are ignored: this Supabase project is shared with DiscordLink, whose settings apply ("
+                    + data.getTimeoutMillis() + "ms, " + data.getMaxRetries() + "). Change them in DiscordLink's config.yml.");
+        }
+
+        long batchWindowMillis = getConfig().getLong("supabase.batch-window-millis", 5L);
+        if (batchWindowMillis > 0) {
+            data.bridgeEvents().enableBatching(batchWindowMillis, getConfig().getInt("supabase.batch-max-rows", 50));
+        }
+
+        handlers = new HandlerExecutor(
+                getLogger(),
+                getConfig().getBoolean("handlers.virtual-threads", true),
+                getConfig().getInt("handlers.platform-threads", 8),
+                getConfig().getInt("handlers.max-concurrent", 32)
+        );
+        getLogger().info("Discord handlers run on " + (handlers.isVirtual() ? "virtual threads." : "a platform thread pool."));
+        HandlerExecutor localHandlers = handlers;
+
+        // DiscordLink's wheel, so expiry on both plugins runs off its single tick
+        TimingWheel expiries = Bukkit.getServicesManager().load(TimingWheel.class);
+        if (expiries == null) {
+            getLogger().warning("DiscordLink's expiry wheel is unavailable; link codes are checked against Supabase only.");
+        } else if (getConfig().getBoolean("link-codes.local-index", true)) {
+            codeIndex = new PendingCodeIndex(
+                    data.pendingCodes(),
+                    expiries,
+                    getLogger(),
+                    getConfig().getLong("link-codes.sync-seconds", 30L) * 1000L,
+                    getConfig().getLong("link-codes.full-resync-minutes", 10L) * 60_000L,
+                    getConfig().getLong("link-codes.min-sync-gap-millis", 1000L)
+            );
+            codeIndex.start();
+        }
+        PendingCodeIndex localCodeIndex = codeIndex;
 
         Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
             try {
@@ -80,7 +126,7 @@ public class DiscordBot extends JavaPlugin {
                                 GatewayIntent.MESSAGE_CONTENT,
                                 GatewayIntent.GUILD_MEMBERS // needed for addRoleToMember
                         )
-                        .addEventListeners(new BotListener(this, supabase))
+                        .addEventListeners(new BotListener(this, data, localHandlers, localCodeIndex))
                         .build();
 
                 if (shuttingDown.get()) {
@@ -142,6 +188,38 @@ public class DiscordBot extends JavaPlugin {
                 try { local.shutdownNow(); } catch (Exception ignored2) {}
             }
         }
+
+        if (handlers != null) {
+            handlers.shutdown();
+            getLogger().info("Discord handlers: " + handlers.describeStats());
+            handlers = null;
+        }
+
+        if (codeIndex != null) {
+            codeIndex.shutdown();
+            getLogger().info("Link code index: " + codeIndex.describeStats());
+            codeIndex = null;
+        }
+
+        if (data != null) {
+            data.bridgeEvents().shutdown();
+            String batching = data.bridgeEvents().describeBatching();
+            if (batching != null) getLogger().info("Bridge event inserts: " + batching);
+            if (data.close()) getLogger().info("Supabase: " + data.describeStats());
+            data = null;
+        }
+    }
+
+    /**
+     * DiscordLink's in-process bridge if it runs in this JVM for the same server id, otherwise null.
+     */
+    public BridgeService getLocalBridge() {
+        if (!preferLocalBridge) return null;
+        BridgeService service = Bukkit.getServicesManager().load(BridgeService.class);
+        if (service == null) return null;
+
+        String id = service.getServerId();
+        return (id == null || id.isBlank() || id.equals(serverId)) ? service : null;
     }
 
     public String getServerId() { return serverId; }
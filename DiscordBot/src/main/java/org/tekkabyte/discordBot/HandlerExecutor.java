@@ -0,0 +1,129 @@
+package org.tekkabyte.discordBot;
+
+import org.tekkabyte.discordLink.utils.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Runs Discord event handlers off JDA's event thread. Handlers with the same key (a channel or a
+ * user) run one after another in submission order; different keys run in parallel, up to a total
+ * cap. A handler counts as running, for ordering, the cap and its latency, until the future it
+ * returns completes, so asynchronous Supabase work is covered too.
+ */
+public class HandlerExecutor {
+
+    private final Logger logger;
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong waitedForPermit = new AtomicLong();
+
+    public HandlerExecutor(Logger logger, boolean preferVirtualThreads, int platformThreads, int maxConcurrent) {
+        this.logger = logger;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent);
+
+        this.virtual = preferVirtualThreads;
+        if (preferVirtualThreads) {
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            AtomicInteger threadIds = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(Math.max(1, platformThreads), r -> {
+                Thread t = new Thread(r, "DiscordBot-Handler-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Queues the handler behind earlier handlers with the same key.
+     */
+    public void submit(String key, String handler, Supplier<? extends CompletableFuture<?>> task) {
+        long queuedAt = System.nanoTime();
+
+        CompletableFuture<Void> next = tails.compute(key, (k, previous) -> {
+            CompletableFuture<Void> after = previous == null
+                    ? CompletableFuture.completedFuture(null)
+                    : previous;
+            return after.thenComposeAsync(ignored -> run(handler, task, queuedAt), executor);
+        });
+        next.whenComplete((ok, err) -> tails.remove(key, next));
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    public String describeStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(virtual ? "virtual threads" : "platform pool")
+                .append(", cap ").append(maxConcurrent)
+                .append(", ").append(waitedForPermit.get()).append(" waited for the cap")
+                .append(", ").append(failed.get()).append(" failed");
+        latencies.forEach((name, histogram) -> sb.append("\n  ").append(name).append(": ").append(histogram.describe()));
+        return sb.toString();
+    }
+
+    /**
+     * Never completes exceptionally, so one failing handler does not stall its key.
+     */
+    private CompletableFuture<Void> run(String handler, Supplier<? extends CompletableFuture<?>> task, long queuedAt) {
+        try {
+            if (!permits.tryAcquire()) {
+                waitedForPermit.incrementAndGet();
+                permits.acquire();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<?> work;
+        try {
+            work = task.get();
+            if (work == null) work = CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            work = CompletableFuture.failedFuture(e);
+        }
+
+        return work.handle((ok, err) -> {
+            permits.release();
+            latencies.computeIfAbsent(handler, k -> new LatencyHistogram())
+                    .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt));
+            if (err != null) {
+                failed.incrementAndGet();
+                Throwable cause = (err instanceof CompletionException && err.getCause() != null) ? err.getCause() : err;
+                logger.warning(handler + " handler failed: " + cause.getMessage());
+            }
+            return null;
+        });
+    }
+}
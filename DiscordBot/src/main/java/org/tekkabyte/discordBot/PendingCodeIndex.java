@@ -0,0 +1,183 @@
+package org.tekkabyte.discordBot;
+
+import org.tekkabyte.discordLink.data.PendingCode;
+import org.tekkabyte.discordLink.data.PendingLinkCodes;
+import org.tekkabyte.discordLink.data.SupabaseData;
+import org.tekkabyte.discordLink.utils.TimingWheel;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Live link codes mirrored from pending_link_codes, so pasted text that is not a live code is
+ * rejected without a Supabase call. Periodic delta syncs fetch codes expiring at or after the
+ * latest expiry seen; an occasional full resync also drops codes redeemed elsewhere, and the
+ * timing wheel evicts each code when it expires. A miss
+ * waits for one more delta sync, shared by all misses and rate limited, before the code is
+ * rejected, so a code issued a moment ago still gets through.
+ */
+public class PendingCodeIndex {
+
+    private final PendingLinkCodes source;
+    private final TimingWheel expiries;
+    private final Logger logger;
+    private final long syncIntervalMillis;
+    private final long fullResyncMillis;
+    private final long minSyncGapMillis;
+    private final ScheduledExecutorService executor;
+
+    private final Map<String, Long> codes = new ConcurrentHashMap<>();
+    private volatile Instant watermark;
+    private volatile boolean ready = false;
+    private long lastFullSyncAt;
+
+    private long lastSyncStartedAt;
+    private CompletableFuture<Void> nextSync;
+
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong fullSyncs = new AtomicLong();
+    private final AtomicLong onDemandSyncs = new AtomicLong();
+    private final AtomicLong syncFailures = new AtomicLong();
+
+    public PendingCodeIndex(PendingLinkCodes source, TimingWheel expiries, Logger logger,
+                            long syncIntervalMillis, long fullResyncMillis, long minSyncGapMillis) {
+        this.source = source;
+        this.expiries = expiries;
+        this.logger = logger;
+        this.syncIntervalMillis = Math.max(1000L, syncIntervalMillis);
+        this.fullResyncMillis = Math.max(this.syncIntervalMillis, fullResyncMillis);
+        this.minSyncGapMillis = Math.max(0L, minSyncGapMillis);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DiscordBot-CodeIndex");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(() -> syncStartingAfter(System.currentTimeMillis()),
+                0L, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * False only if the code is certainly not live. Until the first sync succeeds, or when a sync
+     * fails, every code passes and Supabase decides.
+     */
+    public CompletableFuture<Boolean> mightBeValid(String code) {
+        if (!ready || isLive(code)) {
+            passed.incrementAndGet();
+            return CompletableFuture.completedFuture(true);
+        }
+
+        onDemandSyncs.incrementAndGet();
+        return syncStartingAfter(System.currentTimeMillis()).handle((ok, err) -> {
+            boolean live = err != null || isLive(code);
+            (live ? passed : rejected).incrementAndGet();
+            return live;
+        });
+    }
+
+    /**
+     * Drops a code that has been redeemed or deleted.
+     */
+    public void forget(String code) {
+        codes.remove(code);
+    }
+
+    public String describeStats() {
+        return codes.size() + " live codes, " + passed.get() + " passed, " + rejected.get() + " rejected locally, "
+                + syncs.get() + " syncs (" + fullSyncs.get() + " full, " + onDemandSyncs.get() + " on demand, "
+                + syncFailures.get() + " failed)";
+    }
+
+    private boolean isLive(String code) {
+        // the wheel may run up to a tick late
+        Long expiresAt = codes.get(code);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * A sync that starts no earlier than the given time, so it sees every code issued before it.
+     * A sync that is scheduled but not yet started qualifies, so callers until then share it.
+     */
+    private synchronized CompletableFuture<Void> syncStartingAfter(long time) {
+        if (nextSync != null) return nextSync;
+
+        long startAt = Math.max(time, lastSyncStartedAt + minSyncGapMillis);
+        CompletableFuture<Void> sync = new CompletableFuture<>();
+        nextSync = sync;
+        try {
+            executor.schedule(() -> run(sync), Math.max(0L, startAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            nextSync = null;
+            sync.completeExceptionally(e);
+        }
+        return sync;
+    }
+
+    private void run(CompletableFuture<Void> sync) {
+        synchronized (this) {
+            lastSyncStartedAt = System.currentTimeMillis();
+            if (nextSync == sync) nextSync = null;
+        }
+        try {
+            sync();
+            sync.complete(null);
+        } catch (Exception e) {
+            syncFailures.incrementAndGet();
+            if (ready) logger.warning("Link code sync failed: " + e.getMessage());
+            sync.completeExceptionally(e);
+        }
+    }
+
+    private void sync() throws Exception {
+        long now = System.currentTimeMillis();
+        boolean full = watermark == null || now - lastFullSyncAt >= fullResyncMillis;
+        Instant from = full ? Instant.ofEpochMilli(now) : watermark;
+
+        List<PendingCode> fetched = SupabaseData.await(source.listExpiringFrom(from));
+
+        Instant latest = from;
+        Set<String> seen = full ? new HashSet<>() : null;
+        for (PendingCode code : fetched) {
+            if (code.isExpired()) continue;
+            track(code.code(), code.expiresAt().toEpochMilli());
+            if (seen != null) seen.add(code.code());
+            if (code.expiresAt().isAfter(latest)) latest = code.expiresAt();
+        }
+        if (seen != null) {
+            codes.keySet().retainAll(seen);
+            lastFullSyncAt = now;
+            fullSyncs.incrementAndGet();
+        }
+
+        watermark = latest;
+        syncs.incrementAndGet();
+        ready = true;
+    }
+
+    /**
+     * Delta syncs return the newest codes again, so only a new or changed expiry is scheduled.
+     */
+    private void track(String code, long expiresAt) {
+        Long previous = codes.put(code, expiresAt);
+        if (previous != null && previous == expiresAt) return;
+        expiries.scheduleAt(expiresAt, () -> codes.remove(code, expiresAt));
+    }
+}
@@ -1,67 +1,137 @@
 package org.tekkabyte.discordLink.Bridge;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.tekkabyte.discordLink.utils.HttpTransport;
+import org.tekkabyte.discordLink.utils.JsonPayloadWriter;
+import org.tekkabyte.discordLink.utils.ResponseDecoder;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.URI;
 import java.net.URLEncoder;
-import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class BridgeClient {
 
-    private static final Gson GSON = new Gson();
-    private static final Type LIST_TYPE = new TypeToken<List<BridgeEvent>>() {}.getType();
-
     private final JavaPlugin plugin;
     private final String pollUrl;
+    private final String ackUrl;
     private final String serverId;
     private final String secret;
+    private final ResponseDecoder decoder = new ResponseDecoder();
 
-    public BridgeClient(JavaPlugin plugin, String pollUrl, String serverId, String secret) {
+    public BridgeClient(JavaPlugin plugin, String pollUrl, String ackUrl, String serverId, String secret) {
         this.plugin = plugin;
         this.pollUrl = pollUrl;
+        this.ackUrl = ackUrl == null ? "" : ackUrl.trim();
         this.serverId = serverId;
         this.secret = secret;
     }
 
-    public List<BridgeEvent> poll() {
-        HttpURLConnection conn = null;
+    /**
+     * Fetches events with an id greater than after (0 leaves the choice to the bridge) and streams
+     * the response, handing each event to the sink as soon as it is decoded.
+     * Returns the number of events, or -1 when the poll failed, so callers can tell an error from an empty result.
+     */
+    public int poll(long after, Consumer<BridgeEvent> sink) {
+        if (pollUrl.isBlank()) return 0;
         try {
             String fullUrl = pollUrl
-                    + "?serverId=" + URLEncoder.encode(serverId, StandardCharsets.UTF_8);
-
-            conn = (HttpURLConnection) new URL(fullUrl).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(8000);
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setRequestProperty("User-Agent", "DiscordLink/1.0");
+                    + "?serverId=" + URLEncoder.encode(serverId, StandardCharsets.UTF_8)
+                    + (after > 0 ? "&after=" + after : "");
 
-            conn.setRequestProperty("X-Server-Secret", secret);
+            HttpTransport transport = HttpTransport.get();
+            HttpRequest req = transport.request(URI.create(fullUrl))
+                    .header("Accept", "application/json")
+                    .header("Accept-Encoding", ResponseDecoder.ACCEPT_ENCODING)
+                    .header("X-Server-Secret", secret)
+                    .GET()
+                    .build();
 
-            int code = conn.getResponseCode();
+            HttpResponse<InputStream> res = transport.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            int code = res.statusCode();
             if (code != 200) {
+                res.body().close();
                 Bukkit.getLogger().warning("[DiscordLink] Bridge poll failed: HTTP " + code);
-                return Collections.emptyList();
+                return -1;
             }
 
-            try (InputStream in = conn.getInputStream()) {
-                String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-                if (json.isBlank()) return Collections.emptyList();
-                return GSON.fromJson(json, LIST_TYPE);
+            try (BufferedReader body = new BufferedReader(new InputStreamReader(decoder.decode(res), StandardCharsets.UTF_8))) {
+                return BridgeEventReader.read(body, sink);
             }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return -1;
         } catch (Exception e) {
             plugin.getLogger().warning("Bridge poll error: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    public String describeTransfer() {
+        return decoder.describeStats();
+    }
+
+    public boolean canAck() {
+        return !ackUrl.isBlank();
+    }
+
+    /**
+     * Acknowledges every event up to and including upTo in one request.
+     */
+    public boolean ack(long upTo) {
+        if (ackUrl.isBlank() || upTo <= 0) return false;
+        try {
+            byte[] body = JsonPayloadWriter.acquire()
+                    .beginObject()
+                    .field("serverId", serverId)
+                    .name("upTo").value(upTo)
+                    .endObject()
+                    .toByteArray();
+
+            HttpTransport transport = HttpTransport.get();
+            HttpRequest req = transport.request(URI.create(ackUrl))
+                    .header("Content-Type", "application/json")
+                    .header("X-Server-Secret", secret)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+
+            int code = transport.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (code < 200 || code >= 300) {
+                Bukkit.getLogger().warning("[DiscordLink] Bridge ack failed: HTTP " + code);
+                return false;
+            }
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Bridge ack error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Parses either a single event object or an array of events.
+     */
+    public static List<BridgeEvent> parseEvents(String json) {
+        if (json == null || json.isBlank()) return Collections.emptyList();
+        try {
+            List<BridgeEvent> events = new ArrayList<>();
+            BridgeEventReader.read(new StringReader(json), events::add);
+            return events;
+        } catch (Exception e) {
+            Bukkit.getLogger().warning("[DiscordLink] Ignoring malformed bridge event: " + e.getMessage());
             return Collections.emptyList();
-        } finally {
-            if (conn != null) conn.disconnect();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Bridge event ids seen by this server. Events are accepted (deduplicated) when they are queued and
+ * applied later on the main thread, possibly out of order. Ids are assigned before the inserting
+ * transaction commits, so a lower id can show up after a higher one; ids above the contiguous
+ * accepted position are kept in a small window instead of being folded into a high-water mark,
+ * and polls and stream reconnects ask for events after that position so a late id is still fetched.
+ * A gap that stays open past the grace period (a rolled-back insert) is given up on. The persisted
+ * and acknowledged position only covers ids below the oldest event still waiting, so nothing queued
+ * is lost across a restart; the ids already applied above it are saved alongside, so the refetch
+ * after a restart does not apply them a second time.
+ */
+public class BridgeCursor {
+
+    private static final long GAP_GRACE_MILLIS = 60_000L;
+    private static final int MAX_WINDOW = 4096;
+
+    private final File file;
+    private final Logger logger;
+
+    // every id at or below this has been accepted or given up on
+    private volatile long accepted;
+    // accepted ids above the contiguous position -> when they were accepted
+    private final TreeMap<Long, Long> window = new TreeMap<>();
+    private String saved;
+    private volatile long acked;
+
+    private final ConcurrentSkipListSet<Long> waiting = new ConcurrentSkipListSet<>();
+    private final AtomicLong duplicatesSkipped = new AtomicLong();
+
+    private BridgeCursor(File file, Logger logger, long position) {
+        this.file = file;
+        this.logger = logger;
+        this.accepted = position;
+        this.acked = position;
+    }
+
+    /**
+     * Reads "position" or "position applied-ids", where the applied ids above the position are
+     * written as single ids and a-b ranges.
+     */
+    public static BridgeCursor load(File file, Logger logger) {
+        long value = 0L;
+        String[] applied = new String[0];
+        if (file.isFile()) {
+            try {
+                String[] parts = Files.readString(file.toPath(), StandardCharsets.UTF_8).trim().split("\\s+");
+                value = Long.parseLong(parts[0]);
+                applied = Arrays.copyOfRange(parts, 1, parts.length);
+            } catch (Exception e) {
+                logger.warning("[DiscordLink] Could not read bridge cursor, starting from the server's default: " + e.getMessage());
+                applied = new String[0];
+            }
+        }
+
+        BridgeCursor cursor = new BridgeCursor(file, logger, Math.max(0L, value));
+        long now = System.currentTimeMillis();
+        try {
+            for (String range : applied) {
+                int dash = range.indexOf('-');
+                long from = Long.parseLong(dash < 0 ? range : range.substring(0, dash));
+                long to = dash < 0 ? from : Long.parseLong(range.substring(dash + 1));
+                for (long id = Math.max(from, cursor.accepted + 1); id <= to && cursor.window.size() < MAX_WINDOW; id++) {
+                    cursor.window.put(id, now);
+                }
+            }
+        } catch (NumberFormatException e) {
+            logger.warning("[DiscordLink] Ignoring malformed applied ids in bridge cursor: " + e.getMessage());
+        }
+        cursor.saved = cursor.describeState();
+        return cursor;
+    }
+
+    /**
+     * Position to fetch after: every id up to it has been accepted or given up on.
+     */
+    public synchronized long accepted() {
+        advance(System.currentTimeMillis());
+        return accepted;
+    }
+
+    /**
+     * Highest id below which every accepted event has been applied.
+     */
+    public synchronized long committed() {
+        advance(System.currentTimeMillis());
+        long value = accepted;
+        Long oldest = waiting.isEmpty() ? null : waiting.first();
+        return oldest == null ? value : Math.min(value, oldest - 1);
+    }
+
+    /**
+     * Returns false if the event was already seen; events without an id always pass.
+     */
+    public synchronized boolean tryAccept(long id) {
+        if (id <= 0) return true;
+        // no position yet: the bridge chose where to start, so nothing below the first id is owed
+        if (accepted == 0L && window.isEmpty()) accepted = id - 1;
+        if (id <= accepted || window.containsKey(id)) {
+            duplicatesSkipped.incrementAndGet();
+            return false;
+        }
+        window.put(id, System.currentTimeMillis());
+        waiting.add(id);
+        advance(System.currentTimeMillis());
+        return true;
+    }
+
+    // Caller holds the lock. Folds contiguous ids into the position and gives up on stale or excess gaps.
+    private void advance(long now) {
+        Iterator<Map.Entry<Long, Long>> it = window.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> e = it.next();
+            long id = e.getKey();
+            boolean contiguous = id == accepted + 1;
+            boolean gapExpired = now - e.getValue() >= GAP_GRACE_MILLIS;
+            if (!contiguous && !gapExpired && window.size() <= MAX_WINDOW) break;
+            accepted = id;
+            it.remove();
+        }
+    }
+
+    public void markApplied(long id) {
+        if (id > 0) waiting.remove(id);
+    }
+
+    public synchronized void saveIfDirty() {
+        String value = describeState();
+        if (value.equals(saved)) return;
+
+        try {
+            File dir = file.getParentFile();
+            if (dir != null && !dir.isDirectory()) dir.mkdirs();
+
+            File tmp = new File(dir, file.getName() + ".tmp");
+            Files.writeString(tmp.toPath(), value, StandardCharsets.UTF_8);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            saved = value;
+        } catch (IOException e) {
+            logger.warning("[DiscordLink] Could not save bridge cursor: " + e.getMessage());
+        }
+    }
+
+    // Caller holds the lock. The committed position followed by the ids above it that are done
+    // (applied or given up on), as ranges: everything at or below the contiguous position except
+    // what is still waiting, plus the applied part of the window.
+    private String describeState() {
+        long committed = committed();
+        StringBuilder sb = new StringBuilder(Long.toString(committed));
+        long start = -1L;
+        long end = -1L;
+
+        Iterator<Long> windowIds = window.keySet().iterator();
+        long next = committed + 1;
+        while (true) {
+            long id;
+            if (next <= accepted) {
+                id = next++;
+            } else if (windowIds.hasNext()) {
+                id = windowIds.next();
+            } else {
+                break;
+            }
+            if (waiting.contains(id)) continue;
+
+            if (id == end + 1 && start >= 0) {
+                end = id;
+                continue;
+            }
+            if (start >= 0) appendRange(sb, start, end);
+            start = end = id;
+        }
+        if (start >= 0) appendRange(sb, start, end);
+        return sb.toString();
+    }
+
+    private static void appendRange(StringBuilder sb, long start, long end) {
+        sb.append(' ').append(start);
+        if (end > start) sb.append('-').append(end);
+    }
+
+    /**
+     * Committed id not yet acknowledged to the bridge, or -1 if there is nothing to ack.
+     */
+    public long pendingAck() {
+        long value = committed();
+        return value > acked ? value : -1L;
+    }
+
+    public void markAcked(long id) {
+        if (id > acked) acked = id;
+    }
+
+    public long getDuplicatesSkipped() {
+        return duplicatesSkipped.get();
+    }
+}
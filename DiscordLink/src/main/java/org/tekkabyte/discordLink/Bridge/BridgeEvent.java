@@ -1,13 +1,43 @@
 package org.tekkabyte.discordLink.Bridge;
 
+import java.util.Locale;
+
 public class BridgeEvent {
+
+    public enum Type {
+        CHAT, COMMAND, ONLINE, LINKED, UNKNOWN;
+
+        public static Type of(String s) {
+            if (s == null) return UNKNOWN;
+            return switch (s.toLowerCase(Locale.ROOT)) {
+                case "chat" -> CHAT;
+                case "command" -> COMMAND;
+                case "online" -> ONLINE;
+                case "linked" -> LINKED;
+                default -> UNKNOWN;
+            };
+        }
+    }
+
+    public long id;
     public String type;
     public String author;
     public String content;
     public String command;
     public String by;
+    public String minecraftUuid;
+    public long ts;
+
+    Type kind;
+
+    public Type kind() {
+        Type k = kind;
+        if (k == null) kind = k = Type.of(type);
+        return k;
+    }
 
-    public boolean isChat() { return "chat".equalsIgnoreCase(type); }
-    public boolean isCommand() { return "command".equalsIgnoreCase(type); }
-    public boolean isOnline() { return "online".equalsIgnoreCase(type); }
+    public boolean isChat() { return kind() == Type.CHAT; }
+    public boolean isCommand() { return kind() == Type.COMMAND; }
+    public boolean isOnline() { return kind() == Type.ONLINE; }
+    public boolean isLinked() { return kind() == Type.LINKED; }
 }
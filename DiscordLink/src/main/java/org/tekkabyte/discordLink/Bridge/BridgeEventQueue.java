@@ -0,0 +1,153 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands bridge events to the main thread a few at a time. Producers (the poll and stream threads)
+ * queue events as they are decoded; a one-tick task applies them until the per-tick time budget is
+ * used up, taking admin commands before chat. Chat older than the staleness cutoff is not replayed
+ * line by line but reported as one summary once the stale run ends.
+ */
+public class BridgeEventQueue {
+
+    public interface Handler {
+        void apply(BridgeEvent event);
+
+        void staleChatSkipped(int count);
+    }
+
+    private final JavaPlugin plugin;
+    private final BridgeCursor cursor;
+    private final Handler handler;
+
+    private final long budgetNanos;
+    private final long staleChatMillis;
+    private final long staleCommandMillis;
+
+    private final Queue<BridgeEvent> commands = new ConcurrentLinkedQueue<>();
+    private final Queue<BridgeEvent> others = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private BukkitTask task;
+    private int staleRun = 0;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong staleDropped = new AtomicLong();
+    private final AtomicLong ticksOverBudget = new AtomicLong();
+    private final AtomicLong maxDepth = new AtomicLong();
+    private final AtomicLong maxTickMicros = new AtomicLong();
+
+    public BridgeEventQueue(JavaPlugin plugin, BridgeCursor cursor, long budgetMicros,
+                            long staleChatMillis, long staleCommandMillis, Handler handler) {
+        this.plugin = plugin;
+        this.cursor = cursor;
+        this.handler = handler;
+        this.budgetNanos = Math.max(50L, budgetMicros) * 1000L;
+        this.staleChatMillis = staleChatMillis;
+        this.staleCommandMillis = staleCommandMillis;
+    }
+
+    public synchronized void start() {
+        if (task != null) return;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    public synchronized void stop() {
+        if (task != null) task.cancel();
+        task = null;
+        commands.clear();
+        others.clear();
+        depth.set(0);
+    }
+
+    /**
+     * Thread-safe. Returns false for events that were already seen.
+     */
+    public boolean offer(BridgeEvent event) {
+        if (event == null) return false;
+        if (cursor != null && !cursor.tryAccept(event.id)) return false;
+
+        (event.isCommand() ? commands : others).offer(event);
+        queued.incrementAndGet();
+        maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+        return true;
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    public String describeStats() {
+        return applied.get() + "/" + queued.get() + " applied, " + staleDropped.get() + " stale skipped"
+                + ", backlog " + depth.get() + " (max " + maxDepth.get() + ")"
+                + ", " + ticksOverBudget.get() + " ticks hit the budget, slowest tick " + maxTickMicros.get() + "us";
+    }
+
+    private void drain() {
+        if (commands.isEmpty() && others.isEmpty()) {
+            flushStaleRun();
+            return;
+        }
+
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+
+        while (true) {
+            BridgeEvent event = commands.poll();
+            if (event == null) event = others.poll();
+            if (event == null) break;
+            depth.decrementAndGet();
+
+            try {
+                handle(event, now);
+            } catch (Exception e) {
+                plugin.getLogger().warning("[DiscordLink] Bridge event " + event.id + " failed: " + e.getMessage());
+            } finally {
+                if (cursor != null) cursor.markApplied(event.id);
+            }
+
+            if (System.nanoTime() - start >= budgetNanos) {
+                if (!commands.isEmpty() || !others.isEmpty()) ticksOverBudget.incrementAndGet();
+                break;
+            }
+        }
+
+        if (commands.isEmpty() && others.isEmpty()) flushStaleRun();
+        maxTickMicros.accumulateAndGet((System.nanoTime() - start) / 1000L, Math::max);
+    }
+
+    private void handle(BridgeEvent event, long now) {
+        long age = event.ts > 0 ? now - event.ts : 0L;
+
+        if (event.isCommand()) {
+            if (staleCommandMillis > 0 && age > staleCommandMillis) {
+                staleDropped.incrementAndGet();
+                plugin.getLogger().warning("[DiscordLink] Skipped Discord command queued " + (age / 1000L) + "s ago: " + event.command);
+                return;
+            }
+        } else if (staleChatMillis > 0 && age > staleChatMillis) {
+            staleDropped.incrementAndGet();
+            if (event.isChat()) staleRun++;
+            return;
+        }
+
+        if (event.isChat()) flushStaleRun();
+        handler.apply(event);
+        applied.incrementAndGet();
+    }
+
+    private void flushStaleRun() {
+        if (staleRun == 0) return;
+        int count = staleRun;
+        staleRun = 0;
+        handler.staleChatSkipped(count);
+    }
+}
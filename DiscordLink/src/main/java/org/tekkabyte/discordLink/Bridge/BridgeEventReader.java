@@ -0,0 +1,116 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Hand-written streaming decoder for bridge events. Accepts a single event object or an array of
+ * them and hands each event to the sink as soon as it is decoded. Fields of a nested "payload"
+ * object are read as if they were top-level, so raw bridge_events rows decode too.
+ */
+final class BridgeEventReader {
+
+    private BridgeEventReader() {}
+
+    /**
+     * Returns the number of events handed to the sink.
+     */
+    static int read(Reader in, Consumer<BridgeEvent> sink) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        int count = 0;
+
+        JsonToken token;
+        try {
+            token = reader.peek();
+        } catch (EOFException empty) {
+            return 0;
+        }
+
+        if (token == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                BridgeEvent event = readEvent(reader);
+                if (event != null) {
+                    sink.accept(event);
+                    count++;
+                }
+            }
+            reader.endArray();
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            BridgeEvent event = readEvent(reader);
+            if (event != null) {
+                sink.accept(event);
+                count++;
+            }
+        } else {
+            reader.skipValue();
+        }
+        return count;
+    }
+
+    private static BridgeEvent readEvent(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        BridgeEvent event = new BridgeEvent();
+        readFields(reader, event);
+        event.kind = BridgeEvent.Type.of(event.type);
+        return event;
+    }
+
+    private static void readFields(JsonReader reader, BridgeEvent event) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> event.id = readLong(reader);
+                case "type" -> event.type = readString(reader);
+                case "author" -> event.author = readString(reader);
+                case "content" -> event.content = readString(reader);
+                case "command" -> event.command = readString(reader);
+                case "by" -> event.by = readString(reader);
+                case "minecraft_uuid" -> event.minecraftUuid = readString(reader);
+                case "ts" -> event.ts = readLong(reader);
+                case "payload" -> {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) readFields(reader, event);
+                    else reader.skipValue();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) return reader.nextString();
+        if (token == JsonToken.BOOLEAN) return Boolean.toString(reader.nextBoolean());
+        reader.skipValue();
+        return null;
+    }
+
+    private static long readLong(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            reader.skipValue();
+            return 0L;
+        }
+
+        String s = reader.nextString();
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(s.trim());
+            } catch (NumberFormatException ignored) {
+                return 0L;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Self-rescheduling poll loop. Polls at the minimum interval for a few rounds after events arrive,
+ * then stretches the interval towards the maximum while the channel stays quiet, and backs off
+ * exponentially on errors.
+ */
+public class BridgePollScheduler {
+
+    public enum Outcome { EVENTS, EMPTY, ERROR, SKIPPED }
+
+    private final JavaPlugin plugin;
+    private final Supplier<Outcome> poll;
+
+    private final long minTicks;
+    private final long maxTicks;
+    private final long errorMaxTicks;
+    private final double idleGrowth;
+    private final int hotPolls;
+
+    private volatile boolean running = false;
+    private volatile BukkitTask task;
+
+    private volatile long currentTicks;
+    private int quietPolls = 0;
+    private int consecutiveErrors = 0;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong scheduledTicks = new AtomicLong();
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    public BridgePollScheduler(JavaPlugin plugin, long minTicks, long maxTicks, long errorMaxTicks,
+                               double idleGrowth, int hotPolls, Supplier<Outcome> poll) {
+        this.plugin = plugin;
+        this.minTicks = Math.max(1L, minTicks);
+        this.maxTicks = Math.max(this.minTicks, maxTicks);
+        this.errorMaxTicks = Math.max(this.maxTicks, errorMaxTicks);
+        this.idleGrowth = Math.max(1.0, idleGrowth);
+        this.hotPolls = Math.max(0, hotPolls);
+        this.poll = poll;
+        this.currentTicks = this.minTicks;
+    }
+
+    public synchronized void start(long initialDelayTicks) {
+        if (running) return;
+        running = true;
+        schedule(Math.max(1L, initialDelayTicks));
+    }
+
+    public synchronized void stop() {
+        running = false;
+        BukkitTask t = task;
+        task = null;
+        if (t != null) t.cancel();
+    }
+
+    public long getCurrentIntervalTicks() {
+        return currentTicks;
+    }
+
+    /**
+     * Share of actual polls that returned at least one event.
+     */
+    public double getHitRate() {
+        long n = polls.get();
+        return n == 0 ? 0.0 : (double) hits.get() / n;
+    }
+
+    public String describeStats() {
+        long n = polls.get();
+        long minutes = Math.max(1L, (System.currentTimeMillis() - startedAtMillis) / 60_000L);
+        long rounds = n + skipped.get();
+        return "interval " + currentTicks + " ticks"
+                + ", " + n + " polls (" + Math.round(getHitRate() * 100) + "% with events, ~" + (n / minutes) + "/min)"
+                + ", " + errors.get() + " errors"
+                + ", " + skipped.get() + " skipped while streaming"
+                + ", avg interval " + (rounds == 0 ? 0 : scheduledTicks.get() / rounds) + " ticks";
+    }
+
+    private void tick() {
+        if (!running) return;
+
+        Outcome outcome;
+        try {
+            outcome = poll.get();
+        } catch (Exception e) {
+            plugin.getLogger().warning("[DiscordLink] Bridge poll failed: " + e.getMessage());
+            outcome = Outcome.ERROR;
+        }
+
+        schedule(nextDelay(outcome == null ? Outcome.ERROR : outcome));
+    }
+
+    private synchronized long nextDelay(Outcome outcome) {
+        switch (outcome) {
+            case EVENTS -> {
+                polls.incrementAndGet();
+                hits.incrementAndGet();
+                consecutiveErrors = 0;
+                quietPolls = 0;
+                currentTicks = minTicks;
+            }
+            case EMPTY -> {
+                polls.incrementAndGet();
+                consecutiveErrors = 0;
+                if (++quietPolls > hotPolls) {
+                    currentTicks = Math.min(maxTicks, Math.max(currentTicks + 1, (long) Math.ceil(currentTicks * idleGrowth)));
+                }
+            }
+            case ERROR -> {
+                polls.incrementAndGet();
+                errors.incrementAndGet();
+                consecutiveErrors++;
+                long backoff = Math.max(currentTicks, minTicks) << Math.min(consecutiveErrors, 10);
+                return Math.min(errorMaxTicks, backoff);
+            }
+            case SKIPPED -> {
+                skipped.incrementAndGet();
+                quietPolls = 0;
+                currentTicks = minTicks;
+                return maxTicks;
+            }
+        }
+        return currentTicks;
+    }
+
+    private synchronized void schedule(long delayTicks) {
+        if (!running) return;
+        scheduledTicks.addAndGet(delayTicks);
+        try {
+            task = Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, this::tick, delayTicks);
+        } catch (IllegalStateException e) {
+            // plugin is being disabled
+            running = false;
+        }
+    }
+}
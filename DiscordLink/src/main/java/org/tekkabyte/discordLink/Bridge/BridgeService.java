@@ -0,0 +1,26 @@
+package org.tekkabyte.discordLink.Bridge;
+
+/**
+ * In-process bridge registered with the Bukkit ServicesManager. A Discord bot running in the same
+ * server can publish events here directly instead of writing them to the remote bridge table.
+ * Methods are thread-safe and return false when the event could not be queued, so callers can fall
+ * back to the remote path.
+ */
+public interface BridgeService {
+
+    /**
+     * Bridge server id DiscordLink is configured with; blank if it only takes local events.
+     */
+    String getServerId();
+
+    boolean publishChat(String author, String content);
+
+    boolean publishOnline(String by);
+
+    boolean publishCommand(String command, String by);
+
+    /**
+     * Tells DiscordLink the player's link code was redeemed, so /link stops offering it.
+     */
+    boolean publishLinked(String minecraftUuid);
+}
@@ -0,0 +1,231 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import org.tekkabyte.discordLink.utils.HttpTransport;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Server-Sent Events connection to the bridge. Each "data:" block holds one event object or an
+ * array of them, in the same shape the poll endpoint returns. While the stream is connected the
+ * poll timer stands down; when it drops, polling resumes until a reconnect succeeds. Reconnects
+ * resume from the cursor, sent both as "after" and as Last-Event-ID, never from the highest id
+ * received, so ids the cursor is still waiting for below it are sent again.
+ */
+public class BridgeStream {
+
+    private final Logger logger;
+    private final String streamUrl;
+    private final String serverId;
+    private final String secret;
+    private final Consumer<List<BridgeEvent>> sink;
+    private final LongSupplier cursor;
+
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private volatile boolean running = false;
+    private volatile boolean connected = false;
+    private volatile long lastActivityMillis = 0L;
+    private volatile InputStream current;
+    // the current attempt got a 200 and started reading, however it ended
+    private volatile boolean opened = false;
+    private volatile long retryHintMillis = -1L;
+    private Thread thread;
+
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final AtomicLong eventsReceived = new AtomicLong();
+
+    public BridgeStream(Logger logger, String streamUrl, String serverId, String secret,
+                        long minBackoffMillis, long maxBackoffMillis,
+                        LongSupplier cursor, Consumer<List<BridgeEvent>> sink) {
+        this.logger = logger;
+        this.streamUrl = streamUrl;
+        this.serverId = serverId;
+        this.secret = secret;
+        this.minBackoffMillis = Math.max(100L, minBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.minBackoffMillis, maxBackoffMillis);
+        this.cursor = cursor;
+        this.sink = sink;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "DiscordLink-BridgeStream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        closeCurrent();
+        if (thread != null) thread.interrupt();
+        thread = null;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Drops the connection if nothing, not even a heartbeat comment, arrived for idleMillis.
+     * Called from the poll timer so a silently dead connection does not keep polling switched off.
+     */
+    public void checkIdle(long idleMillis) {
+        if (connected && idleMillis > 0 && System.currentTimeMillis() - lastActivityMillis > idleMillis) {
+            logger.warning("[DiscordLink] Bridge stream idle for " + idleMillis + "ms; reconnecting.");
+            closeCurrent();
+            Thread t = thread;
+            if (t != null) t.interrupt();
+        }
+    }
+
+    public String describeStats() {
+        return (connected ? "connected" : "disconnected")
+                + ", " + connects.get() + " connects, " + disconnects.get() + " drops, "
+                + eventsReceived.get() + " events";
+    }
+
+    private void run() {
+        int failures = 0;
+
+        while (running) {
+            opened = false;
+            try {
+                connectAndRead();
+            } catch (InterruptedException ie) {
+                if (!running) break;
+            } catch (Exception e) {
+                if (running) logger.warning("[DiscordLink] Bridge stream error: " + e.getMessage());
+            } finally {
+                if (connected) {
+                    disconnects.incrementAndGet();
+                    logger.info("[DiscordLink] Bridge stream closed; falling back to polling.");
+                }
+                connected = false;
+                closeCurrent();
+            }
+
+            if (!running) break;
+            // an idle kick interrupts the reader; that must not end the reconnect loop
+            Thread.interrupted();
+            failures = opened ? 0 : failures + 1;
+
+            try {
+                Thread.sleep(backoffMillis(failures));
+            } catch (InterruptedException ie) {
+                if (!running) break;
+            }
+        }
+        connected = false;
+    }
+
+    private void connectAndRead() throws Exception {
+        long after = cursor == null ? 0L : cursor.getAsLong();
+        String fullUrl = streamUrl + (streamUrl.contains("?") ? "&" : "?")
+                + "serverId=" + URLEncoder.encode(serverId, StandardCharsets.UTF_8)
+                + (after > 0 ? "&after=" + after : "");
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(fullUrl))
+                .header("User-Agent", HttpTransport.USER_AGENT)
+                .header("Accept", "text/event-stream")
+                .header("Cache-Control", "no-cache")
+                .header("X-Server-Secret", secret)
+                .GET();
+        if (after > 0) builder.header("Last-Event-ID", Long.toString(after));
+
+        HttpResponse<InputStream> res = HttpTransport.get().send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        current = res.body();
+
+        if (res.statusCode() != 200) {
+            logger.warning("[DiscordLink] Bridge stream refused: HTTP " + res.statusCode());
+            return;
+        }
+
+        opened = true;
+        connected = true;
+        connects.incrementAndGet();
+        lastActivityMillis = System.currentTimeMillis();
+        logger.info("[DiscordLink] Bridge stream connected; polling paused.");
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(res.body(), StandardCharsets.UTF_8))) {
+            StringBuilder data = new StringBuilder();
+            String eventName = null;
+            String line;
+
+            while (running && (line = reader.readLine()) != null) {
+                lastActivityMillis = System.currentTimeMillis();
+
+                if (line.isEmpty()) {
+                    if (data.length() > 0 && (eventName == null || eventName.equals("message") || eventName.equals("events"))) {
+                        deliver(data.toString());
+                    }
+                    data.setLength(0);
+                    eventName = null;
+                    continue;
+                }
+                if (line.charAt(0) == ':') continue;
+
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1);
+                if (value.startsWith(" ")) value = value.substring(1);
+
+                switch (field) {
+                    case "data" -> {
+                        if (data.length() > 0) data.append('\n');
+                        data.append(value);
+                    }
+                    case "event" -> eventName = value;
+                    case "retry" -> {
+                        try {
+                            retryHintMillis = Long.parseLong(value.trim());
+                        } catch (NumberFormatException ignored) {}
+                    }
+                    default -> {}
+                }
+            }
+        }
+    }
+
+    private void deliver(String json) {
+        List<BridgeEvent> events = BridgeClient.parseEvents(json);
+        if (events.isEmpty()) return;
+        eventsReceived.addAndGet(events.size());
+        try {
+            sink.accept(events);
+        } catch (Exception e) {
+            logger.warning("[DiscordLink] Bridge stream handling failed: " + e.getMessage());
+        }
+    }
+
+    private long backoffMillis(int failures) {
+        long base = retryHintMillis > 0 ? Math.max(retryHintMillis, minBackoffMillis) : minBackoffMillis;
+        long delay = base << Math.min(failures, 16);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void closeCurrent() {
+        InputStream in = current;
+        current = null;
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (Exception ignored) {}
+    }
+}
@@ -0,0 +1,81 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BridgeService} backed by the plugin's event queue. Local events carry no id, so they skip
+ * the remote cursor and are applied exactly once.
+ */
+public class LocalBridge implements BridgeService {
+
+    private final String serverId;
+    private final BridgeEventQueue queue;
+
+    private volatile boolean open = true;
+    private final AtomicLong published = new AtomicLong();
+
+    public LocalBridge(String serverId, BridgeEventQueue queue) {
+        this.serverId = serverId == null ? "" : serverId;
+        this.queue = queue;
+    }
+
+    @Override
+    public String getServerId() {
+        return serverId;
+    }
+
+    @Override
+    public boolean publishChat(String author, String content) {
+        if (content == null || content.isEmpty()) return false;
+        BridgeEvent event = event(BridgeEvent.Type.CHAT, "chat");
+        event.author = author;
+        event.content = content;
+        return publish(event);
+    }
+
+    @Override
+    public boolean publishOnline(String by) {
+        BridgeEvent event = event(BridgeEvent.Type.ONLINE, "online");
+        event.by = by;
+        return publish(event);
+    }
+
+    @Override
+    public boolean publishCommand(String command, String by) {
+        if (command == null || command.isBlank()) return false;
+        BridgeEvent event = event(BridgeEvent.Type.COMMAND, "command");
+        event.command = command;
+        event.by = by;
+        return publish(event);
+    }
+
+    @Override
+    public boolean publishLinked(String minecraftUuid) {
+        if (minecraftUuid == null || minecraftUuid.isBlank()) return false;
+        BridgeEvent event = event(BridgeEvent.Type.LINKED, "linked");
+        event.minecraftUuid = minecraftUuid;
+        return publish(event);
+    }
+
+    public void close() {
+        open = false;
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    private boolean publish(BridgeEvent event) {
+        if (!open || !queue.offer(event)) return false;
+        published.incrementAndGet();
+        return true;
+    }
+
+    private static BridgeEvent event(BridgeEvent.Type kind, String type) {
+        BridgeEvent event = new BridgeEvent();
+        event.type = type;
+        event.kind = kind;
+        event.ts = System.currentTimeMillis();
+        return event;
+    }
+}
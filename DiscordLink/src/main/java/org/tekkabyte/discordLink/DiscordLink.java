@@ -2,20 +2,37 @@ package org.tekkabyte.discordLink;
 
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 import org.tekkabyte.discordLink.Bridge.BridgeClient;
+import org.tekkabyte.discordLink.Bridge.BridgeCursor;
 import org.tekkabyte.discordLink.Bridge.BridgeEvent;
+import org.tekkabyte.discordLink.Bridge.BridgeEventQueue;
+import org.tekkabyte.discordLink.Bridge.BridgePollScheduler;
+import org.tekkabyte.discordLink.Bridge.BridgeService;
+import org.tekkabyte.discordLink.Bridge.BridgeStream;
+import org.tekkabyte.discordLink.Bridge.LocalBridge;
 import org.tekkabyte.discordLink.commands.LinkCommand;
 import org.tekkabyte.discordLink.commands.ReportCommand;
+import org.tekkabyte.discordLink.data.PendingLinks;
+import org.tekkabyte.discordLink.data.SupabaseData;
 import org.tekkabyte.discordLink.listeners.ChatListener;
 import org.tekkabyte.discordLink.listeners.PlayerListener;
+import org.tekkabyte.discordLink.utils.ChatBatcher;
 import org.tekkabyte.discordLink.utils.DiscordWebhook;
+import org.tekkabyte.discordLink.utils.HttpTransport;
+import org.tekkabyte.discordLink.utils.LinkedAccountCache;
+import org.tekkabyte.discordLink.utils.OutboundDispatcher;
+import org.tekkabyte.discordLink.utils.OutboundKind;
+import org.tekkabyte.discordLink.utils.OutboundSpool;
+import org.tekkabyte.discordLink.utils.TimingWheel;
 import net.md_5.bungee.api.ChatColor;
 
-import java.util.HashMap;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -25,10 +42,24 @@ public class DiscordLink extends JavaPlugin {
     private DiscordWebhook chatWebhook;
     private DiscordWebhook reportsWebhook;
 
-    private final Map<UUID, String> pendingLinks = new HashMap<>();
+    private final PendingLinks pendingLinks = new PendingLinks();
+    private SupabaseData data;
+    private LinkedAccountCache linkedAccounts;
 
     private BridgeClient bridgeClient;
-    private BukkitTask bridgePollTask;
+    private BridgePollScheduler bridgePollScheduler;
+    private BridgeStream bridgeStream;
+    private BridgeCursor bridgeCursor;
+    private BridgeEventQueue bridgeQueue;
+    private LocalBridge localBridge;
+
+    private OutboundSpool spool;
+    private BukkitTask spoolRetryTask;
+
+    private OutboundDispatcher dispatcher;
+
+    private TimingWheel expiries;
+    private BukkitTask expiryTask;
 
     @Override
     public void onEnable() {
@@ -37,7 +68,59 @@ public class DiscordLink extends JavaPlugin {
 
         FileConfiguration cfg = getConfig();
 
-        String chatWebhookUrl = cfg.getString("discord.chat-webhook", "").trim();
+        // every expiring entry (report slots, link codes, cached lookups) is evicted by this one tick
+        TimingWheel wheel = new TimingWheel(1000L, getLogger());
+        expiries = wheel;
+        expiryTask = Bukkit.getScheduler().runTaskTimerAsynchronously(this,
+                () -> wheel.advance(System.currentTimeMillis()), 20L, 20L);
+        Bukkit.getServicesManager().register(TimingWheel.class, wheel, this, ServicePriority.Normal);
+
+        HttpTransport transport = HttpTransport.configure(
+                cfg.getInt("http.pool-size", 4),
+                cfg.getLong("http.connect-timeout-millis", 5000L),
+                cfg.getLong("http.request-timeout-millis", 8000L),
+                cfg.getLong("http.keep-alive-seconds", 60L)
+        );
+
+        if (cfg.getBoolean("spool.enabled", true)) {
+            try {
+                spool = new OutboundSpool(
+                        new File(getDataFolder(), "spool"),
+                        cfg.getInt("spool.segment-size-kb", 1024) * 1024,
+                        cfg.getInt("spool.max-segments", 8),
+                        getLogger()
+                );
+            } catch (Exception e) {
+                getLogger().warning("[DiscordLink] Could not open outbound spool, messages will not survive outages: " + e.getMessage());
+                spool = null;
+            }
+        }
+
+        OutboundKind[] kinds = OutboundKind.values();
+        int[] laneCapacities = new int[kinds.length];
+        int[] laneWeights = new int[kinds.length];
+        for (OutboundKind kind : kinds) {
+            String lane = kind.name().toLowerCase(Locale.ROOT);
+            laneCapacities[kind.ordinal()] = cfg.getInt("outbound.queue-capacity." + lane, kind.getDefaultCapacity());
+            laneWeights[kind.ordinal()] = cfg.getInt("outbound.weight." + lane, kind.getDefaultWeight());
+        }
+        dispatcher = new OutboundDispatcher(
+                OutboundDispatcher.parseMode(cfg.getString("outbound.mode", "strict")),
+                DiscordWebhook.rateLimits(),
+                laneCapacities,
+                laneWeights
+        );
+
+        List<String> chatWebhookUrls = new ArrayList<>();
+        if (cfg.isList("discord.chat-webhook")) {
+            for (String url : cfg.getStringList("discord.chat-webhook")) {
+                if (url != null && !url.isBlank()) chatWebhookUrls.add(url.trim());
+            }
+        } else {
+            String url = cfg.getString("discord.chat-webhook", "").trim();
+            if (!url.isBlank()) chatWebhookUrls.add(url);
+        }
+        String chatWebhookUrl = chatWebhookUrls.isEmpty() ? "" : chatWebhookUrls.get(0);
         String reportsWebhookUrl = cfg.getString("discord.reports-webhook", "").trim();
 
         String reportsThreadIdOverride = cfg.getString("reports.thread-id-override", "").trim();
@@ -46,15 +129,54 @@ public class DiscordLink extends JavaPlugin {
         if (chatWebhookUrl.isBlank()) {
             getLogger().warning("[DiscordLink] discord.chat-webhook is missing. Chat/join/leave will NOT send to Discord.");
         } else {
-            chatWebhook = new DiscordWebhook(chatWebhookUrl);
+            chatWebhook = new DiscordWebhook(chatWebhookUrls, null);
+            if (chatWebhook.getWebhookCount() > 1) {
+                getLogger().info("[DiscordLink] Spreading chat relay across " + chatWebhook.getWebhookCount() + " webhooks.");
+            }
+            chatWebhook.useSpool(spool);
+            chatWebhook.useDispatcher(dispatcher);
+
+            long coalesceWindowMillis = cfg.getLong("chat.coalesce-window-millis", 250L);
+            if (coalesceWindowMillis > 0) {
+                chatWebhook.enableChatCoalescing(coalesceWindowMillis);
+                getLogger().info("[DiscordLink] Chat coalescing enabled (" + coalesceWindowMillis + "ms window).");
+            }
+
+            long presenceWindowMillis = cfg.getLong("chat.join-leave-window-millis", 3000L);
+            if (presenceWindowMillis > 0) {
+                chatWebhook.enablePresenceAggregation(presenceWindowMillis);
+            }
         }
 
         if (reportsWebhookUrl.isBlank()) {
             getLogger().warning("[DiscordLink] discord.reports-webhook is missing. Reports will NOT send to Discord.");
         } else {
             reportsWebhook = new DiscordWebhook(reportsWebhookUrl, reportsThreadIdOverride);
+            reportsWebhook.useSpool(spool);
+            reportsWebhook.useDispatcher(dispatcher);
+        }
+
+        data = SupabaseData.open(
+                cfg.getString("supabase.url", ""),
+                cfg.getString("supabase.service-key", ""),
+                cfg.getLong("supabase.request-timeout-millis", 5000L),
+                cfg.getInt("supabase.max-retries", 2)
+        );
+        if (!data.isConfigured()) {
+            getLogger().warning("[DiscordLink] supabase.url or supabase.service-key is missing. /link and linked account lookups will fail.");
         }
 
+        SupabaseData accountData = data;
+        linkedAccounts = new LinkedAccountCache(
+                uuid -> SupabaseData.await(accountData.accountLinks().findDiscordId(uuid.toString())),
+                task -> Bukkit.getScheduler().runTaskAsynchronously(this, task),
+                expiries,
+                pendingLinks::contains,
+                cfg.getLong("supabase.linked-cache-minutes", 30L) * 60_000L,
+                cfg.getLong("supabase.unlinked-cache-seconds", 60L) * 1000L,
+                cfg.getInt("supabase.cache-max-entries", 5000)
+        );
+
         if (getCommand("link") != null) getCommand("link").setExecutor(new LinkCommand(this));
         if (getCommand("report") != null) getCommand("report").setExecutor(new ReportCommand(this));
 
@@ -62,20 +184,105 @@ public class DiscordLink extends JavaPlugin {
         Bukkit.getPluginManager().registerEvents(new PlayerListener(this), this);
 
         String pollUrl = cfg.getString("bridge.poll-url", "").trim();
+        String streamUrl = cfg.getString("bridge.stream-url", "").trim();
+        String ackUrl = cfg.getString("bridge.ack-url", "").trim();
         String serverId = cfg.getString("bridge.server-id", "").trim();
         String secret = cfg.getString("bridge.secret", "").trim();
         int pollIntervalTicks = cfg.getInt("bridge.poll-interval-ticks", 40);
         boolean allowDiscordCommands = cfg.getBoolean("bridge.allow-discord-commands", false);
 
-        if (!pollUrl.isBlank() && !serverId.isBlank() && !secret.isBlank() && pollIntervalTicks > 0) {
-            bridgeClient = new BridgeClient(this, pollUrl, serverId, secret);
-            bridgePollTask = Bukkit.getScheduler().runTaskTimerAsynchronously(
+        boolean remoteBridge = !serverId.isBlank() && !secret.isBlank();
+        boolean localBridgeEnabled = cfg.getBoolean("bridge.local-enabled", true);
+
+        if (remoteBridge || localBridgeEnabled) {
+            if (remoteBridge) {
+                bridgeCursor = BridgeCursor.load(new File(getDataFolder(), "bridge-cursor.txt"), getLogger());
+            }
+
+            bridgeQueue = new BridgeEventQueue(
                     this,
-                    () -> handleBridgePoll(allowDiscordCommands),
-                    20L,
-                    pollIntervalTicks
+                    bridgeCursor,
+                    cfg.getLong("bridge.tick-budget-micros", 2000L),
+                    cfg.getLong("bridge.stale-chat-seconds", 120L) * 1000L,
+                    cfg.getLong("bridge.stale-command-seconds", 0L) * 1000L,
+                    new BridgeEventQueue.Handler() {
+                        @Override
+                        public void apply(BridgeEvent event) {
+                            applyBridgeEvent(event, allowDiscordCommands);
+                        }
+
+                        @Override
+                        public void staleChatSkipped(int count) {
+                            Bukkit.broadcastMessage(colorize("&#29b6f6&lDISCORD &7- &8" + count + " older message" + (count == 1 ? " was" : "s were") + " skipped while the bridge caught up."));
+                        }
+                    }
             );
-            getLogger().info("[DiscordLink] Bridge polling enabled.");
+            bridgeQueue.start();
+
+            if (localBridgeEnabled) {
+                localBridge = new LocalBridge(serverId, bridgeQueue);
+                Bukkit.getServicesManager().register(BridgeService.class, localBridge, this, ServicePriority.Normal);
+            }
+        }
+
+        if (remoteBridge) {
+            BridgeCursor cursor = bridgeCursor;
+            BridgeEventQueue queue = bridgeQueue;
+
+            if (!streamUrl.isBlank()) {
+                bridgeStream = new BridgeStream(
+                        getLogger(), streamUrl, serverId, secret,
+                        cfg.getLong("bridge.stream-reconnect-min-millis", 1000L),
+                        cfg.getLong("bridge.stream-reconnect-max-millis", 60000L),
+                        cursor::accepted,
+                        events -> events.forEach(queue::offer)
+                );
+                bridgeStream.start();
+                getLogger().info("[DiscordLink] Bridge push stream enabled.");
+            }
+
+            if (!pollUrl.isBlank() || !ackUrl.isBlank()) {
+                bridgeClient = new BridgeClient(this, pollUrl, ackUrl, serverId, secret);
+            }
+
+            long streamIdleMillis = cfg.getLong("bridge.stream-idle-timeout-seconds", 45L) * 1000L;
+            if ((bridgeClient != null || bridgeStream != null) && pollIntervalTicks > 0) {
+                boolean adaptive = cfg.getBoolean("bridge.adaptive-polling", true);
+                long minTicks = adaptive ? cfg.getLong("bridge.poll-min-ticks", 10L) : pollIntervalTicks;
+                long maxTicks = adaptive ? cfg.getLong("bridge.poll-max-ticks", 200L) : pollIntervalTicks;
+
+                bridgePollScheduler = new BridgePollScheduler(
+                        this,
+                        minTicks,
+                        maxTicks,
+                        cfg.getLong("bridge.poll-error-max-ticks", 1200L),
+                        cfg.getDouble("bridge.poll-idle-growth", 1.5),
+                        cfg.getInt("bridge.poll-hot-rounds", 5),
+                        () -> handleBridgePoll(streamIdleMillis)
+                );
+                bridgePollScheduler.start(20L);
+                if (!pollUrl.isBlank()) {
+                    getLogger().info("[DiscordLink] Bridge polling enabled (" + minTicks + "-" + maxTicks + " ticks).");
+                }
+            }
+        }
+
+        if (spool != null) {
+            long maxReplayAgeMillis = cfg.getLong("spool.max-replay-age-minutes", 60L) * 60_000L;
+            long retryTicks = Math.max(1L, cfg.getLong("spool.retry-interval-seconds", 60L)) * 20L;
+            OutboundSpool localSpool = spool;
+            OutboundDispatcher localDispatcher = dispatcher;
+
+            spoolRetryTask = Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
+                int pending = localSpool.pendingCount();
+                if (pending == 0) return;
+                int delivered = DiscordWebhook.replaySpool(localSpool, localDispatcher, maxReplayAgeMillis);
+                if (delivered > 0) getLogger().info("[DiscordLink] Replayed " + delivered + "/" + pending + " spooled webhook messages.");
+            }, 40L, retryTicks);
+        }
+
+        if (cfg.getBoolean("http.prewarm", true)) {
+            transport.prewarm(getLogger(), chatWebhookUrl, reportsWebhookUrl, pollUrl, data.getOrigin());
         }
 
         getLogger().info("[DiscordLink] Enabled.");
@@ -83,18 +290,102 @@ public class DiscordLink extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        if (bridgePollTask != null) {
-            bridgePollTask.cancel();
-            bridgePollTask = null;
+        if (bridgePollScheduler != null) {
+            bridgePollScheduler.stop();
+            getLogger().info("[DiscordLink] Bridge polling: " + bridgePollScheduler.describeStats());
+            bridgePollScheduler = null;
+        }
+        if (bridgeClient != null) {
+            getLogger().info("[DiscordLink] Bridge poll transfer: " + bridgeClient.describeTransfer());
+            bridgeClient = null;
+        }
+        if (linkedAccounts != null) {
+            getLogger().info("[DiscordLink] Linked account cache: " + linkedAccounts.describeStats());
+            linkedAccounts = null;
+        }
+        if (data != null) {
+            if (data.close()) getLogger().info("[DiscordLink] Supabase: " + data.describeStats());
+            data = null;
+        }
+
+        if (bridgeStream != null) {
+            getLogger().info("[DiscordLink] Bridge stream: " + bridgeStream.describeStats());
+            bridgeStream.stop();
+            bridgeStream = null;
+        }
+
+        if (localBridge != null) {
+            localBridge.close();
+            Bukkit.getServicesManager().unregister(BridgeService.class, localBridge);
+            if (localBridge.getPublished() > 0) {
+                getLogger().info("[DiscordLink] Local bridge delivered " + localBridge.getPublished() + " events in-process.");
+            }
+            localBridge = null;
+        }
+
+        if (bridgeQueue != null) {
+            getLogger().info("[DiscordLink] Bridge events: " + bridgeQueue.describeStats());
+            bridgeQueue.stop();
+            bridgeQueue = null;
+        }
+
+        if (bridgeCursor != null) {
+            bridgeCursor.saveIfDirty();
+            if (bridgeCursor.getDuplicatesSkipped() > 0) {
+                getLogger().info("[DiscordLink] Skipped " + bridgeCursor.getDuplicatesSkipped() + " duplicate bridge events.");
+            }
+            bridgeCursor = null;
+        }
+
+        if (spoolRetryTask != null) {
+            spoolRetryTask.cancel();
+            spoolRetryTask = null;
+        }
+
+        if (expiryTask != null) {
+            expiryTask.cancel();
+            expiryTask = null;
         }
-        bridgeClient = null;
+        if (expiries != null) {
+            Bukkit.getServicesManager().unregister(TimingWheel.class, expiries);
+            getLogger().info("[DiscordLink] Expiry wheel: " + expiries.describeStats());
+            expiries = null;
+        }
+        pendingLinks.clear();
+
+        if (chatWebhook != null) {
+            ChatBatcher batcher = chatWebhook.getChatBatcher();
+            chatWebhook.shutdown();
+            if (batcher != null) {
+                getLogger().info("[DiscordLink] Chat relay: " + batcher.describeStats());
+            }
+        }
+
+        if (dispatcher != null) {
+            dispatcher.shutdown(getConfig().getLong("outbound.drain-seconds", 5L) * 1000L);
+            getLogger().info("[DiscordLink] Outbound lanes: " + dispatcher.describeStats());
+            dispatcher = null;
+        }
+
+        if (spool != null) {
+            spool.close();
+            spool = null;
+        }
+
+        HttpTransport.shutdown();
 
         getLogger().info("[DiscordLink] Disabled.");
     }
 
     public DiscordWebhook getChatWebhook() { return chatWebhook; }
     public DiscordWebhook getReportsWebhook() { return reportsWebhook; }
-    public Map<UUID, String> getPendingLinks() { return pendingLinks; }
+    /**
+     * Link codes issued to players on this server, so /link can show a live one again without asking Supabase.
+     */
+    public PendingLinks getPendingLinks() { return pendingLinks; }
+    public LinkedAccountCache getLinkedAccounts() { return linkedAccounts; }
+    public SupabaseData getData() { return data; }
+    public TimingWheel getExpiries() { return expiries; }
 
     public static String colorize(String message) {
         Pattern hexPattern = Pattern.compile("&#([A-Fa-f0-9]{6})");
@@ -125,32 +416,54 @@ public class DiscordLink extends JavaPlugin {
         chatWebhook.sendOnlinePlayersEmbed(names.size(), names);
     }
 
-    private void handleBridgePoll(boolean allowDiscordCommands) {
+    private BridgePollScheduler.Outcome handleBridgePoll(long streamIdleMillis) {
         try {
-            if (bridgeClient == null) return;
-
-            List<BridgeEvent> events = bridgeClient.poll();
-            if (events == null || events.isEmpty()) return;
-
-            Bukkit.getScheduler().runTask(this, () -> {
-                for (BridgeEvent e : events) {
-                    if (e == null) continue;
-
-                    if (e.isChat()) {
-                        String author = (e.author == null || e.author.isBlank()) ? "Discord" : e.author;
-                        String content = (e.content == null) ? "" : e.content;
-                        String msg = "&#29b6f6&lDISCORD &7- &f" + author + "&7: &f" + content;
-                        Bukkit.broadcastMessage(colorize(msg));
-                    } else if (e.isOnline()) {
-                        sendOnlinePlayersNow();
-                    } else if (allowDiscordCommands && e.isCommand()) {
-                        String cmd = (e.command == null) ? "" : e.command.trim();
-                        if (!cmd.isBlank()) Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd);
-                    }
+            BridgeClient client = bridgeClient;
+            BridgeCursor cursor = bridgeCursor;
+
+            if (cursor != null) {
+                cursor.saveIfDirty();
+                long ackUpTo = cursor.pendingAck();
+                if (client != null && client.canAck() && ackUpTo > 0 && client.ack(ackUpTo)) {
+                    cursor.markAcked(ackUpTo);
                 }
-            });
+            }
+
+            BridgeStream stream = bridgeStream;
+            if (stream != null) {
+                stream.checkIdle(streamIdleMillis);
+                if (stream.isConnected()) return BridgePollScheduler.Outcome.SKIPPED;
+            }
+
+            BridgeEventQueue queue = bridgeQueue;
+            if (client == null || queue == null) return BridgePollScheduler.Outcome.SKIPPED;
+
+            int received = client.poll(cursor == null ? 0L : cursor.accepted(), queue::offer);
+            if (received < 0) return BridgePollScheduler.Outcome.ERROR;
+            if (received == 0) return BridgePollScheduler.Outcome.EMPTY;
+            return BridgePollScheduler.Outcome.EVENTS;
         } catch (Exception ex) {
             getLogger().warning("[DiscordLink] Bridge poll handling failed: " + ex.getMessage());
+            return BridgePollScheduler.Outcome.ERROR;
+        }
+    }
+
+    private void applyBridgeEvent(BridgeEvent e, boolean allowDiscordCommands) {
+        if (e.isChat()) {
+            String author = (e.author == null || e.author.isBlank()) ? "Discord" : e.author;
+            String content = (e.content == null) ? "" : e.content;
+            String msg = "&#29b6f6&lDISCORD &7- &f" + author + "&7: &f" + content;
+            Bukkit.broadcastMessage(colorize(msg));
+        } else if (e.isOnline()) {
+            sendOnlinePlayersNow();
+        } else if (e.isLinked()) {
+            // the code is used up: the next /link must ask Supabase, which answers "already linked"
+            UUID player = pendingLinks.redeemed(e.minecraftUuid);
+            LinkedAccountCache accounts = linkedAccounts;
+            if (player != null && accounts != null) accounts.invalidate(player);
+        } else if (allowDiscordCommands && e.isCommand()) {
+            String cmd = (e.command == null) ? "" : e.command.trim();
+            if (!cmd.isBlank()) Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd);
         }
     }
-}
\ No newline at end of file
+}
@@ -11,18 +11,22 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.tekkabyte.discordLink.DiscordLink;
-import org.tekkabyte.discordLink.utils.SupabaseClient;
+import org.tekkabyte.discordLink.data.IssuedLinkCode;
+import org.tekkabyte.discordLink.data.SupabaseData;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.Duration;
+import java.util.UUID;
 
 public class LinkCommand implements CommandExecutor {
 
+    private static final Duration CODE_TTL = Duration.ofMinutes(5);
+    // don't hand out a code the player has no time left to use
+    private static final Duration MIN_REMAINING = Duration.ofSeconds(30);
+
     private final DiscordLink plugin;
-    private final SupabaseClient supabaseClient;
 
     public LinkCommand(DiscordLink plugin) {
         this.plugin = plugin;
-        this.supabaseClient = new SupabaseClient(plugin);
     }
 
     @Override
@@ -32,55 +36,37 @@ public class LinkCommand implements CommandExecutor {
             return true;
         }
 
-        final String uuid = player.getUniqueId().toString();
+        final UUID playerId = player.getUniqueId();
         final String name = player.getName();
 
+        IssuedLinkCode live = plugin.getPendingLinks().reusable(playerId, MIN_REMAINING);
+        if (live != null) {
+            showCode(player, live);
+            return true;
+        }
+
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
-                if (supabaseClient.isAlreadyLinked(uuid)) {
-                    Bukkit.getScheduler().runTask(plugin, () ->
-                            player.sendMessage("§cYour account is already linked to Discord.")
-                    );
-                    return;
+                IssuedLinkCode issued = SupabaseData.await(
+                        plugin.getData().pendingCodes().issue(playerId.toString(), name, CODE_TTL));
+
+                if (issued != null) {
+                    plugin.getPendingLinks().put(playerId, issued);
+                    plugin.getExpiries().scheduleAt(issued.expiresAt().toEpochMilli(),
+                            () -> plugin.getPendingLinks().expire(playerId, issued));
+                } else {
+                    plugin.getPendingLinks().remove(playerId);
+                    // Supabase says the account is linked, so a cached "not linked" is out of date
+                    plugin.getLinkedAccounts().invalidate(playerId);
                 }
 
-                boolean success = false;
-                String code = null;
-
-                for (int attempt = 0; attempt < 3 && !success; attempt++) {
-                    code = generateCode();
-                    success = supabaseClient.createPendingLink(code, uuid, name);
-                }
-
-                final boolean finalSuccess = success;
-                final String finalCode = code;
-
                 Bukkit.getScheduler().runTask(plugin, () -> {
                     if (!player.isOnline()) return;
 
-                    if (finalSuccess) {
-                        player.sendMessage("§a§m                                                    ");
-                        player.sendMessage("§6§lAccount Linking");
-                        player.sendMessage("");
-                        Component codeComponent = Component.text(finalCode)
-                                .color(NamedTextColor.AQUA)
-                                .decorate(TextDecoration.BOLD)
-                                .clickEvent(ClickEvent.copyToClipboard(finalCode))
-                                .hoverEvent(HoverEvent.showText(
-                                        Component.text("Click to copy")
-                                                .color(NamedTextColor.YELLOW)
-                                ));
-
-                        player.sendMessage(Component.text("Your verification code: ")
-                                .color(NamedTextColor.GRAY)
-                                .append(codeComponent));
-
-                        player.sendMessage("");
-                        player.sendMessage("§7Post this code in the Discord linking channel.");
-                        player.sendMessage("§7This code expires in §c5 minutes§7.");
-                        player.sendMessage("§a§m                                                    ");
+                    if (issued != null) {
+                        showCode(player, issued);
                     } else {
-                        player.sendMessage("§cFailed to generate linking code. Please try again later.");
+                        player.sendMessage("§cYour account is already linked to Discord.");
                     }
                 });
             } catch (Exception e) {
@@ -98,14 +84,28 @@ public class LinkCommand implements CommandExecutor {
         return true;
     }
 
-    private String generateCode() {
-        final String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder code = new StringBuilder(6);
-        ThreadLocalRandom r = ThreadLocalRandom.current();
-
-        for (int i = 0; i < 6; i++) {
-            code.append(chars.charAt(r.nextInt(chars.length())));
-        }
-        return code.toString();
+    private void showCode(Player player, IssuedLinkCode issued) {
+        long minutes = Math.max(1L, (issued.remaining().toSeconds() + 59) / 60);
+
+        player.sendMessage("§a§m                                                    ");
+        player.sendMessage("§6§lAccount Linking");
+        player.sendMessage("");
+        Component codeComponent = Component.text(issued.code())
+                .color(NamedTextColor.AQUA)
+                .decorate(TextDecoration.BOLD)
+                .clickEvent(ClickEvent.copyToClipboard(issued.code()))
+                .hoverEvent(HoverEvent.showText(
+                        Component.text("Click to copy")
+                                .color(NamedTextColor.YELLOW)
+                ));
+
+        player.sendMessage(Component.text("Your verification code: ")
+                .color(NamedTextColor.GRAY)
+                .append(codeComponent));
+
+        player.sendMessage("");
+        player.sendMessage("§7Post this code in the Discord linking channel.");
+        player.sendMessage("§7This code expires in §c" + minutes + (minutes == 1 ? " minute" : " minutes") + "§7.");
+        player.sendMessage("§a§m                                                    ");
     }
 }
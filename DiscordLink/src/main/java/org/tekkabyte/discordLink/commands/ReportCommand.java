@@ -7,7 +7,7 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.tekkabyte.discordLink.DiscordLink;
 import org.tekkabyte.discordLink.utils.DiscordWebhook;
-import org.tekkabyte.discordLink.utils.SupabaseClient;
+import org.tekkabyte.discordLink.utils.TimingWheel;
 
 import java.util.ArrayDeque;
 import java.util.Arrays;
@@ -19,13 +19,13 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ReportCommand implements CommandExecutor {
 
     private final DiscordLink plugin;
-    private final SupabaseClient supabase;
 
-    private static final Map<UUID, Deque<Long>> RECENT_REPORTS = new ConcurrentHashMap<>();
+    // reports still inside the window; each one is released by the plugin's timing wheel when it
+    // leaves it, so this lives exactly as long as that wheel
+    private final Map<UUID, Deque<Slot>> recentReports = new ConcurrentHashMap<>();
 
     public ReportCommand(DiscordLink plugin) {
         this.plugin = plugin;
-        this.supabase = new SupabaseClient(plugin);
     }
 
     @Override
@@ -53,22 +53,29 @@ public class ReportCommand implements CommandExecutor {
         final UUID reporterUuidObj = reporter.getUniqueId();
         final long now = System.currentTimeMillis();
 
-        Deque<Long> dq = RECENT_REPORTS.computeIfAbsent(reporterUuidObj, k -> new ArrayDeque<>());
-
-        synchronized (dq) {
-            while (!dq.isEmpty() && (now - dq.peekFirst()) > windowMillis) dq.pollFirst();
-
-            if (dq.size() >= max) {
-                long oldest = dq.peekFirst();
-                long resetInMs = windowMillis - (now - oldest);
-                long resetInSec = Math.max(1L, (resetInMs + 999) / 1000);
-
-                reporter.sendMessage("§cYou have reached the report limit (" + max + " per " + windowSeconds + "s).");
-                reporter.sendMessage("§7Try again in §f" + resetInSec + "s§7.");
-                return true;
+        final TimingWheel expiries = plugin.getExpiries();
+        final Slot slot = new Slot(now);
+        final boolean[] limited = {false};
+        final long[] resetInMs = {0L};
+
+        recentReports.compute(reporterUuidObj, (uuid, slots) -> {
+            if (slots == null) slots = new ArrayDeque<>();
+            if (slots.size() >= max) {
+                limited[0] = true;
+                resetInMs[0] = windowMillis - (now - slots.peekFirst().at);
+                return slots;
             }
+            slots.addLast(slot);
+            slot.expiry = expiries.schedule(windowMillis, () -> release(uuid, slot));
+            return slots;
+        });
+
+        if (limited[0]) {
+            long resetInSec = Math.max(1L, (resetInMs[0] + 999) / 1000);
 
-            dq.addLast(now);
+            reporter.sendMessage("§cYou have reached the report limit (" + max + " per " + windowSeconds + "s).");
+            reporter.sendMessage("§7Try again in §f" + resetInSec + "s§7.");
+            return true;
         }
 
         String targetName = args[0];
@@ -82,12 +89,12 @@ public class ReportCommand implements CommandExecutor {
         final String staffMention = roleId.isEmpty() ? "" : "<@&" + roleId + ">";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            boolean success = false;
+            DiscordWebhook.ReportDelivery delivery = DiscordWebhook.ReportDelivery.FAILED;
 
             try {
-                String discordId = supabase.getLinkedDiscordId(reporterUuid);
+                String discordId = plugin.getLinkedAccounts().getLinkedDiscordId(reporterUuidObj);
                 if (discordId == null) {
-                    rollbackSlot(reporterUuidObj, timestamp);
+                    rollbackSlot(reporterUuidObj, slot);
 
                     Bukkit.getScheduler().runTask(plugin, () -> {
                         if (!reporter.isOnline()) return;
@@ -96,7 +103,7 @@ public class ReportCommand implements CommandExecutor {
                     return;
                 }
 
-                success = hook.sendReport(
+                delivery = hook.sendReport(
                         staffMention,
                         reporterName,
                         reporterUuid,
@@ -107,19 +114,19 @@ public class ReportCommand implements CommandExecutor {
                 );
 
             } catch (Exception e) {
-                rollbackSlot(reporterUuidObj, timestamp);
+                rollbackSlot(reporterUuidObj, slot);
                 plugin.getLogger().warning("Failed to send report webhook: " + e.getMessage());
                 e.printStackTrace();
             }
 
-            final boolean finalSuccess = success;
+            final DiscordWebhook.ReportDelivery finalDelivery = delivery;
             Bukkit.getScheduler().runTask(plugin, () -> {
                 if (!reporter.isOnline()) return;
 
-                if (finalSuccess) {
-                    reporter.sendMessage("§aYour report has been submitted successfully.");
-                } else {
-                    reporter.sendMessage("§cFailed to submit report. Please try again later.");
+                switch (finalDelivery) {
+                    case SENT -> reporter.sendMessage("§aYour report has been submitted successfully.");
+                    case QUEUED -> reporter.sendMessage("§eDiscord is unreachable right now. Your report has been queued and will be delivered automatically.");
+                    case FAILED -> reporter.sendMessage("§cFailed to submit report. Please try again later.");
                 }
             });
         });
@@ -127,12 +134,24 @@ public class ReportCommand implements CommandExecutor {
         return true;
     }
 
-    private void rollbackSlot(UUID reporterUuid, long timestamp) {
-        Deque<Long> dq = RECENT_REPORTS.get(reporterUuid);
-        if (dq == null) return;
-        synchronized (dq) {
-            dq.removeFirstOccurrence(timestamp);
-            if (dq.isEmpty()) RECENT_REPORTS.remove(reporterUuid);
+    private void rollbackSlot(UUID reporterUuid, Slot slot) {
+        if (slot.expiry != null) slot.expiry.cancel();
+        release(reporterUuid, slot);
+    }
+
+    private void release(UUID reporterUuid, Slot slot) {
+        recentReports.computeIfPresent(reporterUuid, (uuid, slots) -> {
+            slots.remove(slot);
+            return slots.isEmpty() ? null : slots;
+        });
+    }
+
+    private static final class Slot {
+        final long at;
+        TimingWheel.Timeout expiry;
+
+        Slot(long at) {
+            this.at = at;
         }
     }
 }
\ No newline at end of file
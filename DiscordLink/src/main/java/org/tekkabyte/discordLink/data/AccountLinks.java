@@ -0,0 +1,67 @@
+package org.tekkabyte.discordLink.data;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queries on the account_links table.
+ */
+public class AccountLinks {
+
+    private final SupabaseData data;
+
+    AccountLinks(SupabaseData data) {
+        this.data = data;
+    }
+
+    /**
+     * Completes with the linked Discord id, or null if the Minecraft account is not linked.
+     */
+    public CompletableFuture<String> findDiscordId(String minecraftUuid) {
+        String path = "/rest/v1/account_links?minecraft_uuid=eq." + SupabaseData.enc(minecraftUuid) + "&select=discord_id&limit=1";
+        return data.get("account_links.find", path).thenApply(body -> {
+            JsonArray arr = JsonParser.parseString(body).getAsJsonArray();
+            if (arr.size() == 0) return null;
+
+            JsonElement id = arr.get(0).getAsJsonObject().get("discord_id");
+            if (id == null || id.isJsonNull()) return null;
+            String s = id.getAsString();
+            return s.isBlank() ? null : s.trim();
+        });
+    }
+
+    public CompletableFuture<Boolean> isMinecraftLinked(String minecraftUuid) {
+        String path = "/rest/v1/account_links?minecraft_uuid=eq." + SupabaseData.enc(minecraftUuid) + "&select=minecraft_uuid&limit=1";
+        return data.get("account_links.exists", path).thenApply(AccountLinks::hasRows);
+    }
+
+    public CompletableFuture<Boolean> isDiscordLinked(String discordId) {
+        String path = "/rest/v1/account_links?discord_id=eq." + SupabaseData.enc(discordId) + "&select=discord_id&limit=1";
+        return data.get("account_links.exists", path).thenApply(AccountLinks::hasRows);
+    }
+
+    public CompletableFuture<Void> upsert(String minecraftUuid, String minecraftUsername, String discordId, String discordTag) {
+        JsonObject row = new JsonObject();
+        row.addProperty("minecraft_uuid", minecraftUuid);
+        row.addProperty("minecraft_username", minecraftUsername);
+        row.addProperty("discord_id", discordId);
+        row.addProperty("discord_tag", discordTag);
+        row.addProperty("linked_at", Instant.now().toString());
+
+        JsonArray arr = new JsonArray();
+        arr.add(row);
+
+        return data.post("account_links.upsert", "/rest/v1/account_links?on_conflict=minecraft_uuid", arr.toString(),
+                "resolution=merge-duplicates,return=minimal", true).thenApply(body -> null);
+    }
+
+    private static boolean hasRows(String body) {
+        JsonElement parsed = JsonParser.parseString(body);
+        return parsed.isJsonArray() && parsed.getAsJsonArray().size() > 0;
+    }
+}
@@ -0,0 +1,161 @@
+package org.tekkabyte.discordLink.data;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gathers bridge_events rows for a short window and writes them in one insert. Batches are
+ * written one at a time on a single thread, so rows reach the table in the order they were added.
+ * Every row gets its own future; when a multi-row insert is rejected the rows are retried one by
+ * one, so a single bad row only fails its own caller.
+ */
+class BridgeEventBatcher {
+
+    interface Writer {
+        void write(JsonArray rows) throws Exception;
+    }
+
+    private final long windowMillis;
+    private final int maxRows;
+    private final Writer writer;
+    private final ScheduledExecutorService executor;
+
+    private List<Row> pending = new ArrayList<>();
+    private boolean flushScheduled = false;
+
+    private final AtomicLong rowsQueued = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final AtomicLong inserts = new AtomicLong();
+    private final AtomicLong maxRowsPerInsert = new AtomicLong();
+
+    BridgeEventBatcher(long windowMillis, int maxRows, Writer writer) {
+        this.windowMillis = Math.max(1L, windowMillis);
+        this.maxRows = Math.max(1, maxRows);
+        this.writer = writer;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DiscordLink-BridgeWriter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public CompletableFuture<Void> add(JsonObject row) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        rowsQueued.incrementAndGet();
+
+        synchronized (this) {
+            pending.add(new Row(row, result));
+
+            if (pending.size() >= maxRows) {
+                submit(drain());
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                try {
+                    executor.schedule(this::flushScheduled, windowMillis, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    flushScheduled = false;
+                    fail(drain(), e);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes whatever is still pending and waits briefly for it to finish.
+     */
+    public void shutdown() {
+        List<Row> last;
+        synchronized (this) {
+            last = drain();
+        }
+        if (!last.isEmpty()) submit(last);
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    public String describeStats() {
+        long n = inserts.get();
+        return String.format("%d/%d rows written in %d inserts (avg %.1f, max %d), %d failed",
+                rowsWritten.get(), rowsQueued.get(), n, n == 0 ? 0.0 : (double) rowsWritten.get() / n,
+                maxRowsPerInsert.get(), rowsFailed.get());
+    }
+
+    private void flushScheduled() {
+        List<Row> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            batch = drain();
+        }
+        if (!batch.isEmpty()) write(batch);
+    }
+
+    private void submit(List<Row> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            executor.execute(() -> write(batch));
+        } catch (Exception e) {
+            fail(batch, e);
+        }
+    }
+
+    private List<Row> drain() {
+        if (pending.isEmpty()) return List.of();
+        List<Row> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void write(List<Row> batch) {
+        JsonArray rows = new JsonArray();
+        for (Row row : batch) rows.add(row.json());
+
+        try {
+            writer.write(rows);
+        } catch (Exception e) {
+            if (batch.size() > 1 && isRejected(e)) {
+                for (Row row : batch) write(List.of(row));
+            } else {
+                fail(batch, e);
+            }
+            return;
+        }
+
+        inserts.incrementAndGet();
+        rowsWritten.addAndGet(batch.size());
+        maxRowsPerInsert.accumulateAndGet(batch.size(), Math::max);
+        for (Row row : batch) row.result().complete(null);
+    }
+
+    private void fail(List<Row> batch, Exception e) {
+        rowsFailed.addAndGet(batch.size());
+        for (Row row : batch) row.result().completeExceptionally(e);
+    }
+
+    /**
+     * The table refused the rows themselves, as opposed to a network or server failure where
+     * retrying every row separately would only multiply the load.
+     */
+    private static boolean isRejected(Exception e) {
+        if (!(e instanceof SupabaseException failed)) return false;
+        int status = failed.getStatus();
+        return status >= 400 && status < 500 && status != 401 && status != 403 && status != 429;
+    }
+
+    private record Row(JsonObject json, CompletableFuture<Void> result) {}
+}
@@ -0,0 +1,81 @@
+package org.tekkabyte.discordLink.data;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Inserts into the bridge_events table, optionally gathered into multi-row inserts.
+ */
+public class BridgeEvents {
+
+    private final SupabaseData data;
+    private volatile BridgeEventBatcher batcher;
+    private volatile BridgeEventBatcher retired;
+
+    BridgeEvents(SupabaseData data) {
+        this.data = data;
+    }
+
+    public PayloadBuilder payload() { return new PayloadBuilder(); }
+
+    /**
+     * Gathers inserts for up to windowMillis (or maxRows rows) and writes them together.
+     */
+    public synchronized void enableBatching(long windowMillis, int maxRows) {
+        BridgeEventBatcher previous = batcher;
+        batcher = new BridgeEventBatcher(windowMillis, maxRows, rows -> SupabaseData.await(insertAll(rows)));
+        if (previous != null) previous.shutdown();
+    }
+
+    /**
+     * Flushes pending inserts; later inserts are written one by one.
+     */
+    public synchronized void shutdown() {
+        BridgeEventBatcher previous = batcher;
+        batcher = null;
+        if (previous != null) {
+            previous.shutdown();
+            retired = previous;
+        }
+    }
+
+    /**
+     * Stats of the current batcher, or of the last one after {@link #shutdown()}; null if batching was never enabled.
+     */
+    public String describeBatching() {
+        BridgeEventBatcher b = batcher != null ? batcher : retired;
+        return b == null ? null : b.describeStats();
+    }
+
+    /**
+     * Completes once the row is in bridge_events.
+     */
+    public CompletableFuture<Void> insert(String serverId, String type, JsonObject payload) {
+        JsonObject row = new JsonObject();
+        row.addProperty("server_id", serverId);
+        row.addProperty("type", type);
+        row.add("payload", payload);
+
+        BridgeEventBatcher b = batcher;
+        if (b != null) return b.add(row);
+
+        JsonArray arr = new JsonArray();
+        arr.add(row);
+        return insertAll(arr);
+    }
+
+    CompletableFuture<Void> insertAll(JsonArray rows) {
+        return data.post("bridge_events.insert", "/rest/v1/bridge_events", rows.toString(), "return=minimal", false)
+                .thenApply(body -> null);
+    }
+
+    public static class PayloadBuilder {
+        private final JsonObject obj = new JsonObject();
+        public PayloadBuilder add(String k, String v) { obj.addProperty(k, v); return this; }
+        public PayloadBuilder add(String k, long v) { obj.addProperty(k, v); return this; }
+        public PayloadBuilder add(String k, boolean v) { obj.addProperty(k, v); return this; }
+        public JsonObject build() { return obj; }
+    }
+}
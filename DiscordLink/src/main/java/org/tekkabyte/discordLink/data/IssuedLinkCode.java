@@ -0,0 +1,16 @@
+package org.tekkabyte.discordLink.data;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record IssuedLinkCode(String code, Instant expiresAt) {
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    public Duration remaining() {
+        Duration left = Duration.between(Instant.now(), expiresAt);
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+}
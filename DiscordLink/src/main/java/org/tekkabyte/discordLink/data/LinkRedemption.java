@@ -0,0 +1,40 @@
+package org.tekkabyte.discordLink.data;
+
+/**
+ * Result of {@link PendingLinkCodes#redeem}. The Minecraft fields are null for INVALID and EXPIRED.
+ */
+public record LinkRedemption(Outcome outcome, String minecraftUuid, String minecraftUsername) {
+
+    public enum Outcome {
+        LINKED(null),
+        INVALID("❌ That code is invalid or already used."),
+        EXPIRED("⌛ That code expired. Run `/link` in Minecraft again."),
+        MINECRAFT_ALREADY_LINKED("❌ That Minecraft account is already linked."),
+        DISCORD_ALREADY_LINKED("❌ Your Discord account is already linked to a Minecraft account.");
+
+        private final String reply;
+
+        Outcome(String reply) {
+            this.reply = reply;
+        }
+
+        /**
+         * What the bot posts in the link channel when the code was not redeemed; null for LINKED,
+         * whose reply names the linked account.
+         */
+        public String failureReply() {
+            return reply;
+        }
+    }
+
+    static Outcome parseOutcome(String status) {
+        return switch (status) {
+            case "linked" -> Outcome.LINKED;
+            case "invalid" -> Outcome.INVALID;
+            case "expired" -> Outcome.EXPIRED;
+            case "minecraft_linked" -> Outcome.MINECRAFT_ALREADY_LINKED;
+            case "discord_linked" -> Outcome.DISCORD_ALREADY_LINKED;
+            default -> throw new IllegalStateException("Unknown redeem_link_code status: " + status);
+        };
+    }
+}
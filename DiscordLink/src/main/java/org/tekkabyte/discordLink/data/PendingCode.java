@@ -0,0 +1,10 @@
+package org.tekkabyte.discordLink.data;
+
+import java.time.Instant;
+
+public record PendingCode(String code, String minecraftUuid, String minecraftUsername, Instant expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt.toEpochMilli() <= System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,135 @@
+package org.tekkabyte.discordLink.data;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queries on the pending_link_codes table.
+ */
+public class PendingLinkCodes {
+
+    private final SupabaseData data;
+
+    PendingLinkCodes(SupabaseData data) {
+        this.data = data;
+    }
+
+    /**
+     * Completes with the code's row, or null if there is none.
+     */
+    public CompletableFuture<PendingCode> find(String code) {
+        String path = "/rest/v1/pending_link_codes"
+                + "?code=eq." + SupabaseData.enc(code)
+                + "&select=code,minecraft_uuid,minecraft_username,expires_at"
+                + "&limit=1";
+
+        return data.get("pending_link_codes.find", path).thenApply(body -> {
+            JsonArray arr = JsonParser.parseString(body).getAsJsonArray();
+            if (arr.size() == 0) return null;
+
+            return toPendingCode(arr.get(0).getAsJsonObject());
+        });
+    }
+
+    /**
+     * Live codes expiring at or after the given instant, oldest expiry first. Codes all get the
+     * same lifetime, so passing the latest expiry already seen returns only newer codes.
+     */
+    public CompletableFuture<List<PendingCode>> listExpiringFrom(Instant from) {
+        String path = "/rest/v1/pending_link_codes"
+                + "?expires_at=gte." + SupabaseData.enc(from.toString())
+                + "&select=code,minecraft_uuid,minecraft_username,expires_at"
+                + "&order=expires_at.asc";
+
+        return data.get("pending_link_codes.list", path).thenApply(body -> {
+            List<PendingCode> codes = new ArrayList<>();
+            for (JsonElement e : JsonParser.parseString(body).getAsJsonArray()) {
+                codes.add(toPendingCode(e.getAsJsonObject()));
+            }
+            return codes;
+        });
+    }
+
+    /**
+     * Issues a code for the player in one call to the issue_link_code function (see
+     * supabase/issue_link_code.sql). Completes with the player's live code if they already have
+     * one, a fresh code otherwise, or null if the account is already linked. Calling it twice
+     * returns the same code, so it is retried like a read.
+     */
+    public CompletableFuture<IssuedLinkCode> issue(String minecraftUuid, String minecraftUsername, Duration ttl) {
+        JsonObject args = new JsonObject();
+        args.addProperty("p_minecraft_uuid", minecraftUuid);
+        args.addProperty("p_minecraft_username", minecraftUsername);
+        args.addProperty("p_ttl_seconds", Math.max(1L, ttl.toSeconds()));
+
+        return data.rpc("issue_link_code", args.toString(), true).thenApply(body -> {
+            JsonObject o = JsonParser.parseString(body).getAsJsonObject();
+            String status = o.has("status") ? o.get("status").getAsString() : "";
+            if (status.equals("linked")) return null;
+            if (!status.equals("issued")) throw new IllegalStateException("issue_link_code returned " + body);
+
+            return new IssuedLinkCode(
+                    o.get("code").getAsString(),
+                    OffsetDateTime.parse(o.get("expires_at").getAsString()).toInstant()
+            );
+        });
+    }
+
+    /**
+     * Validates the code, enforces one-to-one linking if asked, writes the link and consumes the
+     * code in one transaction (see supabase/redeem_link_code.sql). Not retried: a repeat after a
+     * lost response would find the code already used.
+     */
+    public CompletableFuture<LinkRedemption> redeem(String code, String discordId, String discordTag, boolean oneToOne) {
+        JsonObject args = new JsonObject();
+        args.addProperty("p_code", code);
+        args.addProperty("p_discord_id", discordId);
+        args.addProperty("p_discord_tag", discordTag);
+        args.addProperty("p_one_to_one", oneToOne);
+
+        return data.rpc("redeem_link_code", args.toString(), false).thenApply(body -> {
+            JsonObject o = JsonParser.parseString(body).getAsJsonObject();
+            return new LinkRedemption(
+                    LinkRedemption.parseOutcome(o.has("status") ? o.get("status").getAsString() : ""),
+                    string(o, "minecraft_uuid"),
+                    string(o, "minecraft_username")
+            );
+        });
+    }
+
+    public CompletableFuture<Void> delete(String code) {
+        return data.delete("pending_link_codes.delete", "/rest/v1/pending_link_codes?code=eq." + SupabaseData.enc(code))
+                .thenApply(body -> null);
+    }
+
+    private static String string(JsonObject o, String key) {
+        return o.has(key) && !o.get(key).isJsonNull() ? o.get(key).getAsString() : null;
+    }
+
+    /**
+     * The expiry is parsed once here; an unparseable one counts as already expired.
+     */
+    private static PendingCode toPendingCode(JsonObject o) {
+        Instant expiresAt;
+        try {
+            expiresAt = OffsetDateTime.parse(o.get("expires_at").getAsString()).toInstant();
+        } catch (Exception e) {
+            expiresAt = Instant.EPOCH;
+        }
+        return new PendingCode(
+                o.get("code").getAsString(),
+                o.get("minecraft_uuid").getAsString(),
+                o.get("minecraft_username").getAsString(),
+                expiresAt
+        );
+    }
+}
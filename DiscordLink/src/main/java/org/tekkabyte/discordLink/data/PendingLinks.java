@@ -0,0 +1,63 @@
+package org.tekkabyte.discordLink.data;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Link codes handed out by /link, kept so a repeated /link shows the same code without a Supabase
+ * call. An entry leaves when its code expires or the bot reports it redeemed.
+ */
+public class PendingLinks {
+
+    private final Map<UUID, IssuedLinkCode> codes = new ConcurrentHashMap<>();
+
+    /**
+     * The player's cached code if more than minRemaining of it is left, otherwise null.
+     */
+    public IssuedLinkCode reusable(UUID player, Duration minRemaining) {
+        IssuedLinkCode code = codes.get(player);
+        return code != null && code.remaining().compareTo(minRemaining) > 0 ? code : null;
+    }
+
+    public void put(UUID player, IssuedLinkCode code) {
+        codes.put(player, code);
+    }
+
+    /**
+     * Drops the code only if it is still the cached one, so a late expiry keeps a newer code.
+     */
+    public void expire(UUID player, IssuedLinkCode code) {
+        codes.remove(player, code);
+    }
+
+    public void remove(UUID player) {
+        codes.remove(player);
+    }
+
+    /**
+     * Called when the bot redeemed the player's code. Returns the player's UUID, or null if the
+     * given id is not one.
+     */
+    public UUID redeemed(String minecraftUuid) {
+        if (minecraftUuid == null) return null;
+
+        UUID player;
+        try {
+            player = UUID.fromString(minecraftUuid.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        codes.remove(player);
+        return player;
+    }
+
+    public boolean contains(UUID player) {
+        return codes.containsKey(player);
+    }
+
+    public void clear() {
+        codes.clear();
+    }
+}
@@ -0,0 +1,237 @@
+package org.tekkabyte.discordLink.data;
+
+import org.tekkabyte.discordLink.utils.HttpTransport;
+import org.tekkabyte.discordLink.utils.LatencyHistogram;
+import org.tekkabyte.discordLink.utils.ResponseDecoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Supabase (PostgREST) access shared by DiscordLink and DiscordBot. Requests go through the
+ * plugin-wide {@link HttpTransport}, so the whole server uses one connection pool. Plugins
+ * configured with the same project share one instance, and with it the request metrics.
+ */
+public final class SupabaseData {
+
+    private static final Map<String, SupabaseData> OPEN = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final String baseUrl;
+    private final String serviceKey;
+    private final Duration timeout;
+    private final int maxRetries;
+    private int users = 0;
+
+    private final AccountLinks accountLinks = new AccountLinks(this);
+    private final PendingLinkCodes pendingCodes = new PendingLinkCodes(this);
+    private final BridgeEvents bridgeEvents = new BridgeEvents(this);
+
+    private final ResponseDecoder decoder = new ResponseDecoder();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong peakInFlight = new AtomicLong();
+
+    private SupabaseData(String key, String url, String serviceKey, long timeoutMillis, int maxRetries) {
+        this.key = key;
+        this.baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.serviceKey = serviceKey;
+        this.timeout = Duration.ofMillis(Math.max(1L, timeoutMillis));
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    /**
+     * Returns the instance for this project, creating it on first use. Timeout and retry settings
+     * come from whichever plugin opened it first. Pair every call with {@link #close()}.
+     */
+    public static SupabaseData open(String url, String serviceKey, long timeoutMillis, int maxRetries) {
+        String u = url == null ? "" : url.trim();
+        String k = serviceKey == null ? "" : serviceKey.trim();
+        String id = u + "\n" + k;
+
+        synchronized (OPEN) {
+            SupabaseData data = OPEN.computeIfAbsent(id, x -> new SupabaseData(x, u, k, timeoutMillis, maxRetries));
+            data.users++;
+            return data;
+        }
+    }
+
+    /**
+     * Returns true for the last user, which should log the final stats.
+     */
+    public boolean close() {
+        synchronized (OPEN) {
+            if (--users > 0) return false;
+            OPEN.remove(key, this);
+            bridgeEvents.shutdown();
+            return true;
+        }
+    }
+
+    public boolean isConfigured() {
+        return !baseUrl.isBlank() && !serviceKey.isBlank();
+    }
+
+    public String getOrigin() {
+        return baseUrl;
+    }
+
+    public long getTimeoutMillis() {
+        return timeout.toMillis();
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public AccountLinks accountLinks() { return accountLinks; }
+    public PendingLinkCodes pendingCodes() { return pendingCodes; }
+    public BridgeEvents bridgeEvents() { return bridgeEvents; }
+
+    public String describeStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(requests.get()).append(" requests, ")
+                .append(retries.get()).append(" retried, ")
+                .append(failures.get()).append(" failed, ")
+                .append("peak ").append(peakInFlight.get()).append(" in flight; ")
+                .append(decoder.describeStats());
+        latencies.forEach((query, histogram) -> sb.append("\n  ").append(query).append(": ").append(histogram.describe()));
+        return sb.toString();
+    }
+
+    /**
+     * Blocks for the result, rethrowing the original failure rather than its completion wrapper.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    static String enc(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+
+    CompletableFuture<String> get(String query, String path) {
+        return execute(query, base(path).GET().build(), true);
+    }
+
+    /**
+     * Idempotent writes (upserts) are retried like reads; plain inserts are not, since a lost
+     * response may still mean the row was written.
+     */
+    CompletableFuture<String> post(String query, String path, String json, String prefer, boolean idempotent) {
+        HttpRequest req = base(path)
+                .header("Content-Type", "application/json")
+                .header("Prefer", prefer)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return execute(query, req, idempotent);
+    }
+
+    /**
+     * Calls a Postgres function exposed by PostgREST. Only functions that return the same result
+     * when called twice should be marked idempotent.
+     */
+    CompletableFuture<String> rpc(String function, String json, boolean idempotent) {
+        HttpRequest req = base("/rest/v1/rpc/" + function)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return execute("rpc." + function, req, idempotent);
+    }
+
+    CompletableFuture<String> delete(String query, String path) {
+        return execute(query, base(path).DELETE().build(), true);
+    }
+
+    private HttpRequest.Builder base(String path) {
+        return HttpTransport.get().request(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("apikey", serviceKey)
+                .header("Authorization", "Bearer " + serviceKey)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", ResponseDecoder.ACCEPT_ENCODING);
+    }
+
+    private CompletableFuture<String> execute(String query, HttpRequest req, boolean retryable) {
+        long start = System.nanoTime();
+        return attempt(query, req, retryable, 0).whenComplete((body, err) -> {
+            if (err != null) failures.incrementAndGet();
+            latencies.computeIfAbsent(query, q -> new LatencyHistogram())
+                    .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+    }
+
+    private CompletableFuture<String> attempt(String query, HttpRequest req, boolean retryable, int attempt) {
+        requests.incrementAndGet();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+        CompletableFuture<String> sent;
+        try {
+            sent = HttpTransport.get().client().sendAsync(req, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(res -> {
+                        String body;
+                        try {
+                            body = decoder.decodeString(res);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        int code = res.statusCode();
+                        if (code < 200 || code >= 300) throw new SupabaseException(query, code, body);
+                        return body;
+                    })
+                    // the request timeout ends at the response headers; this also bounds the body
+                    .orTimeout(timeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+
+        return sent.handle((body, err) -> {
+            inFlight.decrementAndGet();
+            if (err == null) return CompletableFuture.completedFuture(body);
+
+            Throwable cause = unwrap(err);
+            if (!retryable || attempt >= maxRetries || !isTransient(cause)) {
+                return CompletableFuture.<String>failedFuture(cause);
+            }
+
+            retries.incrementAndGet();
+            long delay = (250L << attempt) + ThreadLocalRandom.current().nextLong(100L);
+            return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(x -> attempt(query, req, true, attempt + 1));
+        }).thenCompose(f -> f);
+    }
+
+    private static boolean isTransient(Throwable t) {
+        if (t instanceof SupabaseException e) return e.getStatus() == 429 || e.getStatus() >= 500;
+        return t instanceof IOException || t instanceof UncheckedIOException || t instanceof TimeoutException;
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+}
@@ -0,0 +1,18 @@
+package org.tekkabyte.discordLink.data;
+
+/**
+ * PostgREST answered with a non-2xx status.
+ */
+public class SupabaseException extends RuntimeException {
+
+    private final int status;
+
+    public SupabaseException(String query, int status, String body) {
+        super("Supabase " + query + " -> HTTP " + status + ": " + body);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
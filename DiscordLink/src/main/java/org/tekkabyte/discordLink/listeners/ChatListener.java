@@ -1,33 +1,22 @@
 package org.tekkabyte.discordLink.listeners;
 
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.tekkabyte.discordLink.DiscordLink;
+import org.tekkabyte.discordLink.utils.DiscordText;
+import org.tekkabyte.discordLink.utils.DiscordWebhook;
 
 public class ChatListener implements Listener {
 
     private final DiscordLink plugin;
 
-    private static String sanitizeForDiscord(String s) {
-        if (s == null) return "";
-        s = ChatColor.stripColor(s);
-        return s
-                .replace("*", "\\*")
-                .replace("_", "\\_")
-                .replace("~", "\\~")
-                .replace("`", "\\`");
-    }
-
     public ChatListener(DiscordLink plugin) {
         this.plugin = plugin;
     }
 
-
-
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerChat(AsyncPlayerChatEvent event) {
         String playerName = event.getPlayer().getName();
@@ -37,7 +26,13 @@ public class ChatListener implements Listener {
             message = message.substring(0, 1897) + "...";
         }
 
-        final String finalMessage = sanitizeForDiscord(message);
+        final String finalMessage = DiscordText.escapeMinecraftChat(message);
+
+        DiscordWebhook webhook = plugin.getChatWebhook();
+        if (webhook != null && webhook.isCoalescingChat()) {
+            webhook.sendMinecraftChat(playerName, finalMessage);
+            return;
+        }
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
@@ -7,6 +7,8 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.tekkabyte.discordLink.DiscordLink;
+import org.tekkabyte.discordLink.utils.DiscordWebhook;
+import org.tekkabyte.discordLink.utils.LinkedAccountCache;
 
 public class PlayerListener implements Listener {
 
@@ -20,6 +22,15 @@ public class PlayerListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         final String playerName = event.getPlayer().getName();
 
+        LinkedAccountCache linkedAccounts = plugin.getLinkedAccounts();
+        if (linkedAccounts != null) linkedAccounts.prefetch(event.getPlayer().getUniqueId());
+
+        DiscordWebhook webhook = plugin.getChatWebhook();
+        if (webhook != null && webhook.isAggregatingPresence()) {
+            webhook.sendPlayerJoin(playerName);
+            return;
+        }
+
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
                 plugin.getChatWebhook().sendPlayerJoin(playerName);
@@ -33,6 +44,12 @@ public class PlayerListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         final String playerName = event.getPlayer().getName();
 
+        DiscordWebhook webhook = plugin.getChatWebhook();
+        if (webhook != null && webhook.isAggregatingPresence()) {
+            webhook.sendPlayerLeave(playerName);
+            return;
+        }
+
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
                 plugin.getChatWebhook().sendPlayerLeave(playerName);
@@ -0,0 +1,143 @@
+package org.tekkabyte.discordLink.utils;
+
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+public class ChatBatcher {
+
+    public static final int MAX_CONTENT_LENGTH = 2000;
+
+    private final long windowMillis;
+    private final Predicate<String> sender;
+    private final ScheduledExecutorService executor;
+
+    private final StringBuilder pending = new StringBuilder();
+    private int pendingLines = 0;
+    private boolean flushScheduled = false;
+
+    private final AtomicLong linesQueued = new AtomicLong();
+    private final AtomicLong linesSent = new AtomicLong();
+    private final AtomicLong postsSent = new AtomicLong();
+    private final AtomicLong postsFailed = new AtomicLong();
+    private final AtomicLong maxLinesPerPost = new AtomicLong();
+    private volatile int lastLinesPerPost = 0;
+
+    public ChatBatcher(long windowMillis, Predicate<String> sender) {
+        this.windowMillis = Math.max(1L, windowMillis);
+        this.sender = sender;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DiscordLink-ChatRelay");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void add(String line) {
+        if (line == null || line.isEmpty()) return;
+        linesQueued.incrementAndGet();
+
+        synchronized (this) {
+            if (pendingLines > 0 && pending.length() + 1 + line.length() > MAX_CONTENT_LENGTH) {
+                submitFlush(drain());
+            }
+
+            if (pendingLines > 0) pending.append('\n');
+            pending.append(line);
+            pendingLines++;
+
+            if (pending.length() >= MAX_CONTENT_LENGTH) {
+                submitFlush(drain());
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flushScheduled, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    public void shutdown() {
+        Batch last;
+        synchronized (this) {
+            last = drain();
+        }
+        if (last != null) {
+            try {
+                executor.execute(() -> post(last));
+            } catch (Exception ignored) {}
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    public long getLinesQueued() { return linesQueued.get(); }
+    public long getLinesSent() { return linesSent.get(); }
+    public long getPostsSent() { return postsSent.get(); }
+    public long getPostsFailed() { return postsFailed.get(); }
+    public long getMaxLinesPerPost() { return maxLinesPerPost.get(); }
+    public int getLastLinesPerPost() { return lastLinesPerPost; }
+
+    public double getAverageLinesPerPost() {
+        long posts = postsSent.get();
+        return posts == 0 ? 0.0 : (double) linesSent.get() / posts;
+    }
+
+    public String describeStats() {
+        return String.format("%d lines in %d posts (avg %.1f, max %d, last %d, failed %d)",
+                getLinesSent(), getPostsSent(), getAverageLinesPerPost(),
+                getMaxLinesPerPost(), getLastLinesPerPost(), getPostsFailed());
+    }
+
+    private void flushScheduled() {
+        Batch batch;
+        synchronized (this) {
+            flushScheduled = false;
+            batch = drain();
+        }
+        if (batch != null) post(batch);
+    }
+
+    private void submitFlush(Batch batch) {
+        if (batch == null) return;
+        executor.execute(() -> post(batch));
+    }
+
+    private Batch drain() {
+        if (pendingLines == 0) return null;
+        Batch batch = new Batch(pending.toString(), pendingLines);
+        pending.setLength(0);
+        pendingLines = 0;
+        return batch;
+    }
+
+    private void post(Batch batch) {
+        boolean ok;
+        try {
+            ok = sender.test(batch.content());
+        } catch (Exception e) {
+            Bukkit.getLogger().warning("[DiscordLink] Chat relay POST failed: " + e.getMessage());
+            ok = false;
+        }
+
+        if (!ok) {
+            postsFailed.incrementAndGet();
+            return;
+        }
+
+        postsSent.incrementAndGet();
+        linesSent.addAndGet(batch.lines());
+        lastLinesPerPost = batch.lines();
+        maxLinesPerPost.accumulateAndGet(batch.lines(), Math::max);
+    }
+
+    private record Batch(String content, int lines) {}
+}
@@ -0,0 +1,178 @@
+package org.tekkabyte.discordLink.utils;
+
+/**
+ * Single-pass text sanitizers for the Minecraft/Discord relay. Each scans its input once into a
+ * per-thread builder and produces exactly what the older replace/replaceAll chains produced.
+ * Mention rules are applied by matching the tail of the output as it is written, so they see
+ * the text after color stripping and markdown escaping, like the chains did.
+ */
+public final class DiscordText {
+
+    private static final char COLOR_CHAR = '\u00A7';
+    private static final char ZWSP = '\u200B';
+
+    private static final int STRIP_AND_ESCAPE = 1;
+    private static final int MENTIONS = 2;
+
+    private static final int RETAINED_CAPACITY = 8 * 1024;
+
+    private static final ThreadLocal<StringBuilder> LOCAL = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private DiscordText() {}
+
+    /**
+     * Strips Minecraft color codes and escapes Discord markdown (* _ ~ `).
+     */
+    public static String escapeMinecraftChat(String s) {
+        if (s == null) return "";
+        if (!needsWork(s, STRIP_AND_ESCAPE)) return s;
+        StringBuilder out = builder();
+        append(out, s, STRIP_AND_ESCAPE);
+        return out.toString();
+    }
+
+    /**
+     * Breaks @everyone/@here with a zero-width space and replaces role and user mentions with [role]/[user].
+     */
+    public static String neutralizeMentions(String s) {
+        if (s == null) return "";
+        if (!needsWork(s, MENTIONS)) return s;
+        StringBuilder out = builder();
+        append(out, s, MENTIONS);
+        return out.toString();
+    }
+
+    /**
+     * Builds "**player**: message" with mentions neutralized, without concatenating first.
+     */
+    public static String formatChatLine(String playerName, String message) {
+        StringBuilder out = builder();
+        append(out, "**", MENTIONS);
+        append(out, playerName == null ? "" : playerName, MENTIONS);
+        append(out, "**: ", MENTIONS);
+        append(out, message == null ? "" : message, MENTIONS);
+        return out.toString();
+    }
+
+    /**
+     * Discord-to-Minecraft relay: puts a zero-width space after the @ of every mention-like
+     * sequence (one per matching rule, as the old chain did) and trims the result.
+     */
+    public static String breakMentions(String text) {
+        String s = text == null ? "" : text;
+
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+
+        if (s.indexOf('@', start) < 0) return s.substring(start, end);
+
+        StringBuilder out = builder();
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            out.append(c);
+            if (c != '@') continue;
+
+            boolean afterAngle = i > start && s.charAt(i - 1) == '<';
+            if (afterAngle) out.append(ZWSP);
+            if (regionIs(s, i + 1, end, "everyone") || regionIs(s, i + 1, end, "here")) out.append(ZWSP);
+            if (afterAngle && i + 1 < end && (s.charAt(i + 1) == '&' || s.charAt(i + 1) == '!')) out.append(ZWSP);
+        }
+        return out.toString();
+    }
+
+    private static void append(StringBuilder out, String s, int mode) {
+        boolean stripAndEscape = (mode & STRIP_AND_ESCAPE) != 0;
+        boolean mentions = (mode & MENTIONS) != 0;
+
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+
+            if (stripAndEscape) {
+                if (c == COLOR_CHAR && i + 1 < n && isColorCode(s.charAt(i + 1))) {
+                    i++;
+                    continue;
+                }
+                if (c == '*' || c == '_' || c == '~' || c == '`') out.append('\\');
+            }
+
+            out.append(c);
+
+            if (mentions) {
+                if (c == 'e') breakMassMention(out);
+                else if (c == '>') collapseMention(out);
+            }
+        }
+    }
+
+    private static void breakMassMention(StringBuilder out) {
+        int len = out.length();
+        if (tailIs(out, "@everyone")) {
+            out.insert(len - 8, ZWSP);
+        } else if (tailIs(out, "@here")) {
+            out.insert(len - 4, ZWSP);
+        }
+    }
+
+    // Called right after a '>' was written; rewrites a trailing <@&123>, <@!123> or <@123>.
+    private static void collapseMention(StringBuilder out) {
+        int j = out.length() - 2;
+        while (j >= 0 && isDigit(out.charAt(j))) j--;
+        if (j == out.length() - 2 || j < 1) return;
+
+        char k = out.charAt(j);
+        if (k == '&' || k == '!') {
+            if (j < 2 || out.charAt(j - 1) != '@' || out.charAt(j - 2) != '<') return;
+            out.setLength(j - 2);
+            out.append(k == '&' ? "[role]" : "[user]");
+        } else if (k == '@' && out.charAt(j - 1) == '<') {
+            out.setLength(j - 1);
+            out.append("[user]");
+        }
+    }
+
+    private static boolean needsWork(String s, int mode) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if ((mode & STRIP_AND_ESCAPE) != 0 && (c == COLOR_CHAR || c == '*' || c == '_' || c == '~' || c == '`')) return true;
+            if ((mode & MENTIONS) != 0 && c == '@') return true;
+        }
+        return false;
+    }
+
+    private static boolean isColorCode(char c) {
+        return (c >= '0' && c <= '9')
+                || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')
+                || (c >= 'k' && c <= 'o') || (c >= 'K' && c <= 'O')
+                || c == 'r' || c == 'R' || c == 'x' || c == 'X';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean tailIs(StringBuilder out, String suffix) {
+        int offset = out.length() - suffix.length();
+        if (offset < 0) return false;
+        for (int i = 0; i < suffix.length(); i++) {
+            if (out.charAt(offset + i) != suffix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean regionIs(String s, int from, int end, String word) {
+        return from + word.length() <= end && s.startsWith(word, from);
+    }
+
+    private static StringBuilder builder() {
+        StringBuilder sb = LOCAL.get();
+        if (sb.capacity() > RETAINED_CAPACITY) {
+            sb = new StringBuilder(256);
+            LOCAL.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+}
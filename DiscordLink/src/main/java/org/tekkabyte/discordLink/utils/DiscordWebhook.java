@@ -1,52 +1,208 @@
 package org.tekkabyte.discordLink.utils;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.bukkit.Bukkit;
 
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
 import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DiscordWebhook {
 
-    private final String webhookUrl;
+    private final String[] targets;
     private final String threadIdOverride;
 
-    private volatile long blockedUntilMillis = 0L;
+    private static final int MAX_RATE_LIMIT_RETRIES = 3;
+    private static final WebhookRateLimiter RATE_LIMITS = new WebhookRateLimiter(30_000L);
+
+    private static final int MAX_PRESENCE_NAMES_LENGTH = 3800;
+
+    // every target of a spooling webhook -> all targets of its pool, so replays are spread like live sends
+    private static final Map<String, String[]> POOLS = new ConcurrentHashMap<>();
+
+    private static final byte[] NO_MENTIONS = JsonPayloadWriter.preEncode("{\"parse\":[],\"users\":[],\"roles\":[]}");
+
+    private volatile ChatBatcher chatBatcher;
+    private volatile PresenceBatcher presenceBatcher;
+    private volatile OutboundSpool spool;
+    private volatile OutboundDispatcher dispatcher;
 
     public DiscordWebhook(String webhookUrl) {
         this(webhookUrl, null);
     }
 
     public DiscordWebhook(String webhookUrl, String threadIdOverride) {
-        String cleaned = webhookUrl.endsWith("/") ? webhookUrl.substring(0, webhookUrl.length() - 1) : webhookUrl;
-        this.webhookUrl = cleaned;
-        this.threadIdOverride = (threadIdOverride == null || threadIdOverride.isBlank()) ? null : threadIdOverride.trim();
+        this(List.of(webhookUrl), threadIdOverride);
+    }
+
+    /**
+     * Several webhooks of the same channel share the load; each send goes to whichever has the most rate limit budget.
+     */
+    public DiscordWebhook(List<String> webhookUrls, String threadIdOverride) {
+        String threadId = (threadIdOverride == null || threadIdOverride.isBlank()) ? null : threadIdOverride.trim();
+
+        List<String> urls = new ArrayList<>();
+        for (String webhookUrl : webhookUrls) {
+            if (webhookUrl == null || webhookUrl.isBlank()) continue;
+            String cleaned = webhookUrl.trim();
+            if (cleaned.endsWith("/")) cleaned = cleaned.substring(0, cleaned.length() - 1);
+            String target = buildUrlWithThreadIdIfNeeded(cleaned, threadId);
+            if (!urls.contains(target)) urls.add(target);
+        }
+        if (urls.isEmpty()) throw new IllegalArgumentException("No webhook URL given");
+
+        this.targets = urls.toArray(new String[0]);
+        this.threadIdOverride = threadId;
+    }
+
+    public void enableChatCoalescing(long windowMillis) {
+        if (chatBatcher != null) return;
+        chatBatcher = new ChatBatcher(windowMillis, content -> sendSanitizedContent(OutboundKind.CHAT, content).join());
+    }
+
+    public void enablePresenceAggregation(long windowMillis) {
+        if (presenceBatcher != null) return;
+        presenceBatcher = new PresenceBatcher(windowMillis, (joined, left) -> sendPresence(joined, left).join());
+    }
+
+    /**
+     * Spooled entries record the first webhook of the pool; replays resolve it back to the whole pool.
+     */
+    public void useSpool(OutboundSpool spool) {
+        this.spool = spool;
+        if (spool != null) {
+            for (String target : targets) POOLS.put(target, targets);
+        }
+    }
+
+    public void useDispatcher(OutboundDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public static WebhookRateLimiter rateLimits() {
+        return RATE_LIMITS;
+    }
+
+    public int getWebhookCount() {
+        return targets.length;
+    }
+
+    public boolean isCoalescingChat() {
+        return chatBatcher != null;
+    }
+
+    public boolean isAggregatingPresence() {
+        return presenceBatcher != null;
+    }
+
+    public ChatBatcher getChatBatcher() {
+        return chatBatcher;
+    }
+
+    public void shutdown() {
+        ChatBatcher batcher = chatBatcher;
+        chatBatcher = null;
+        if (batcher != null) batcher.shutdown();
+
+        PresenceBatcher presence = presenceBatcher;
+        presenceBatcher = null;
+        if (presence != null) presence.shutdown();
     }
 
     public void sendMinecraftChat(String playerName, String message) {
-        String content = "**" + safe(playerName) + "**: " + safe(message);
-        sendWebhookMessage(content);
+        String line = DiscordText.formatChatLine(safe(playerName), safe(message));
+
+        ChatBatcher batcher = chatBatcher;
+        if (batcher != null) {
+            batcher.add(line);
+            return;
+        }
+
+        sendSanitizedContent(OutboundKind.CHAT, line);
     }
 
     public void sendPlayerJoin(String playerName) {
+        PresenceBatcher presence = presenceBatcher;
+        if (presence != null) {
+            presence.joined(safe(playerName));
+            return;
+        }
         sendSimpleEmbed("Player Joined", "✅ **" + safe(playerName) + "** joined the server.");
     }
 
     public void sendPlayerLeave(String playerName) {
+        PresenceBatcher presence = presenceBatcher;
+        if (presence != null) {
+            presence.left(safe(playerName));
+            return;
+        }
         sendSimpleEmbed("Player Left", "👋 **" + safe(playerName) + "** left the server.");
     }
 
-    public boolean sendReport(String staffRoleId,
+    private CompletableFuture<Boolean> sendPresence(List<String> joined, List<String> left) {
+        if (joined.size() + left.size() == 1) {
+            if (joined.isEmpty()) {
+                return sendSimpleEmbed("Player Left", "👋 **" + left.get(0) + "** left the server.");
+            }
+            return sendSimpleEmbed("Player Joined", "✅ **" + joined.get(0) + "** joined the server.");
+        }
+
+        StringBuilder description = new StringBuilder()
+                .append("+").append(joined.size()).append(" joined, −").append(left.size()).append(" left");
+        appendNames(description, "✅ **Joined:** ", joined);
+        appendNames(description, "👋 **Left:** ", left);
+
+        return sendSimpleEmbed("Players Joined/Left", description.toString());
+    }
+
+    private static void appendNames(StringBuilder sb, String label, List<String> names) {
+        if (names.isEmpty()) return;
+
+        int budget = MAX_PRESENCE_NAMES_LENGTH / 2;
+        sb.append("\n").append(label);
+
+        int shown = 0;
+        for (String name : names) {
+            if (shown > 0 && budget - name.length() - 2 < 0) break;
+            if (shown > 0) sb.append(", ");
+            sb.append(name);
+            budget -= name.length() + 2;
+            shown++;
+        }
+
+        if (shown < names.size()) sb.append(" … and ").append(names.size() - shown).append(" more");
+    }
+
+    /**
+     * SENT: Discord accepted the report. QUEUED: delivery failed but the report is spooled and will be
+     * retried. FAILED: it was neither delivered nor spooled.
+     */
+    public enum ReportDelivery { SENT, QUEUED, FAILED }
+
+    public ReportDelivery sendReport(String staffRoleId,
                               String reporter,
                               String reporterUuid,
                               String reporterDiscordId,
                               String target,
                               String reason,
                               long ignoredTimestamp) {
+        return sendReportAsync(staffRoleId, reporter, reporterUuid, reporterDiscordId, target, reason, ignoredTimestamp).join();
+    }
+
+    public CompletableFuture<ReportDelivery> sendReportAsync(String staffRoleId,
+                                                      String reporter,
+                                                      String reporterUuid,
+                                                      String reporterDiscordId,
+                                                      String target,
+                                                      String reason,
+                                                      long ignoredTimestamp) {
 
         String reporterSafe = safe(reporter);
         String reporterUuidSafe = safe(reporterUuid);
@@ -58,43 +214,43 @@ public class DiscordWebhook {
 
         String staffMention = roleId.isEmpty() ? "" : "<@&" + roleId + "> ";
 
-        JsonObject embed = new JsonObject();
-        embed.addProperty("title", "🚩 New Report");
-        embed.addProperty("description", "A player report was submitted.");
-
-        JsonArray fields = new JsonArray();
-        fields.add(field("Reporter", reporterSafe + " (`" + reporterUuidSafe + "`)", true));
-        fields.add(field("Target", targetSafe, true));
-        fields.add(field("Reason", reasonSafe, false));
-        embed.add("fields", fields);
-
-        JsonObject payload = new JsonObject();
-        payload.addProperty("content", staffMention + "Report filed by <@" + userId + ">");
-        payload.add("embeds", arr(embed));
-
-        payload.add("allowed_mentions", allowRoleAndUserMention(roleId, userId));
+        JsonPayloadWriter w = JsonPayloadWriter.acquire()
+                .beginObject()
+                .field("content", staffMention + "Report filed by <@" + userId + ">")
+                .name("embeds").beginArray()
+                    .beginObject()
+                    .field("title", "🚩 New Report")
+                    .field("description", "A player report was submitted.")
+                    .name("fields").beginArray();
+        writeField(w, "Reporter", reporterSafe + " (`" + reporterUuidSafe + "`)", true);
+        writeField(w, "Target", targetSafe, true);
+        writeField(w, "Reason", reasonSafe, false);
+        w.endArray()
+                    .endObject()
+                .endArray();
+
+        w.name("allowed_mentions").beginObject()
+                .name("parse").beginArray().endArray()
+                .name("roles").beginArray();
+        if (!roleId.isBlank()) w.value(roleId);
+        w.endArray()
+                .name("users").beginArray();
+        if (!userId.isBlank()) w.value(userId);
+        w.endArray()
+                .endObject();
 
         if (threadIdOverride == null) {
-            payload.addProperty("thread_name", "Report: " + truncate(targetSafe, 70));
+            w.field("thread_name", "Report: " + truncate(targetSafe, 70));
         }
 
-        return sendPostRequest(buildUrlWithThreadIdIfNeeded(), payload.toString());
-    }
-
-    private static JsonObject allowRoleAndUserMention(String roleId, String userId) {
-        JsonObject allowed = new JsonObject();
-
-        allowed.add("parse", new JsonArray());
-
-        JsonArray roles = new JsonArray();
-        if (roleId != null && !roleId.isBlank()) roles.add(roleId);
-        allowed.add("roles", roles);
+        byte[] payload = w.endObject().toByteArray();
+        OutboundSpool spool = this.spool;
+        OutboundSpool.Entry entry = spool != null ? spool.append(OutboundKind.REPORT, targets[0], payload) : null;
 
-        JsonArray users = new JsonArray();
-        if (userId != null && !userId.isBlank()) users.add(userId);
-        allowed.add("users", users);
-
-        return allowed;
+        return submit(spool, entry, OutboundKind.REPORT, targets, payload).thenApply(ok -> {
+            if (ok) return ReportDelivery.SENT;
+            return entry != null && !entry.isDone() ? ReportDelivery.QUEUED : ReportDelivery.FAILED;
+        });
     }
 
     private static String normalizeSnowflake(String s) {
@@ -104,59 +260,64 @@ public class DiscordWebhook {
         return digits;
     }
 
-    public boolean sendOnlinePlayersMessage(String content) {
-        return sendWebhookMessage(content);
+    public CompletableFuture<Boolean> sendOnlinePlayersMessage(String content) {
+        return sendWebhookMessage(OutboundKind.ONLINE, content);
     }
 
-    public boolean sendOnlinePlayersEmbed(int count, java.util.Collection<String> playerNames) {
-        JsonObject embed = new JsonObject();
-        embed.addProperty("title", "👥 Online Players (" + count + ")");
-        embed.addProperty("description",
-                playerNames == null || playerNames.isEmpty()
-                        ? "*No players online*"
-                        : String.join("\n", playerNames)
-        );
-
-        JsonObject payload = new JsonObject();
-        payload.add("embeds", arr(embed));
-        payload.add("allowed_mentions", noMentions());
-
-        return sendPostRequest(buildUrlWithThreadIdIfNeeded(), payload.toString());
+    public CompletableFuture<Boolean> sendOnlinePlayersEmbed(int count, java.util.Collection<String> playerNames) {
+        byte[] payload = JsonPayloadWriter.acquire()
+                .beginObject()
+                .name("embeds").beginArray()
+                    .beginObject()
+                    .field("title", "👥 Online Players (" + count + ")")
+                    .field("description",
+                            playerNames == null || playerNames.isEmpty()
+                                    ? "*No players online*"
+                                    : String.join("\n", playerNames))
+                    .endObject()
+                .endArray()
+                .name("allowed_mentions").rawValue(NO_MENTIONS)
+                .endObject()
+                .toByteArray();
+
+        return sendPostRequest(OutboundKind.ONLINE, targets, payload);
     }
 
-    private boolean sendWebhookMessage(String content) {
-        long now = System.currentTimeMillis();
-        if (now < blockedUntilMillis) return false;
-
-        content = sanitizeMentions(content);
+    private CompletableFuture<Boolean> sendWebhookMessage(OutboundKind kind, String content) {
+        return sendSanitizedContent(kind, DiscordText.neutralizeMentions(content));
+    }
 
+    private CompletableFuture<Boolean> sendSanitizedContent(OutboundKind kind, String content) {
         if (content == null) content = "";
         if (content.length() > 2000) content = content.substring(0, 1997) + "...";
 
-        JsonObject payload = new JsonObject();
-        payload.addProperty("content", content);
+        byte[] payload = JsonPayloadWriter.acquire()
+                .beginObject()
+                .field("content", content)
+                .name("allowed_mentions").rawValue(NO_MENTIONS)
+                .endObject()
+                .toByteArray();
 
-        payload.add("allowed_mentions", noMentions());
-
-        return sendPostRequest(buildUrlWithThreadIdIfNeeded(), payload.toString());
+        return sendPostRequest(kind, targets, payload);
     }
 
-    private boolean sendSimpleEmbed(String title, String description) {
-        JsonObject embed = new JsonObject();
-        embed.addProperty("title", safe(title));
-        embed.addProperty("description", safe(description));
-
-        JsonObject payload = new JsonObject();
-        payload.add("embeds", arr(embed));
-
-        payload.add("allowed_mentions", noMentions());
-
-        return sendPostRequest(buildUrlWithThreadIdIfNeeded(), payload.toString());
+    private CompletableFuture<Boolean> sendSimpleEmbed(String title, String description) {
+        byte[] payload = JsonPayloadWriter.acquire()
+                .beginObject()
+                .name("embeds").beginArray()
+                    .beginObject()
+                    .field("title", safe(title))
+                    .field("description", safe(description))
+                    .endObject()
+                .endArray()
+                .name("allowed_mentions").rawValue(NO_MENTIONS)
+                .endObject()
+                .toByteArray();
+
+        return sendPostRequest(OutboundKind.PRESENCE, targets, payload);
     }
 
-    private String buildUrlWithThreadIdIfNeeded() {
-        String url = webhookUrl;
-
+    private static String buildUrlWithThreadIdIfNeeded(String url, String threadIdOverride) {
         if (threadIdOverride != null) {
             String sep = url.contains("?") ? "&" : "?";
             url = url + sep + "thread_id=" + urlEncode(threadIdOverride);
@@ -165,107 +326,175 @@ public class DiscordWebhook {
         return url;
     }
 
-    private boolean sendPostRequest(String urlString, String jsonData) {
-        HttpURLConnection conn = null;
-        try {
-            long now = System.currentTimeMillis();
-            if (now < blockedUntilMillis) return false;
-
-            URL url = new URL(urlString);
-            conn = (HttpURLConnection) url.openConnection();
+    private CompletableFuture<Boolean> sendPostRequest(OutboundKind kind, String[] urls, byte[] input) {
+        OutboundSpool spool = this.spool;
+        OutboundSpool.Entry entry = spool != null ? spool.append(kind, urls[0], input) : null;
+        return submit(spool, entry, kind, urls, input);
+    }
 
-            conn.setRequestMethod("POST");
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(8000);
-            conn.setDoOutput(true);
+    private CompletableFuture<Boolean> submit(OutboundSpool spool, OutboundSpool.Entry entry,
+                                              OutboundKind kind, String[] urls, byte[] input) {
+        OutboundDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            return CompletableFuture.completedFuture(deliverAndSettle(spool, entry, urls, input));
+        }
 
-            conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setRequestProperty("User-Agent", "DiscordLink/1.0");
+        AtomicInteger rateLimited = new AtomicInteger();
+        return dispatcher.submit(kind, urls,
+                () -> attemptAndSettle(spool, entry, urls, input, rateLimited),
+                () -> {
+                    Bukkit.getLogger().warning("[DiscordLink] Outbound " + kind + " queue is full; message not sent.");
+                    if (entry == null) return;
+                    if (kind == OutboundKind.REPORT) spool.release(entry);
+                    else spool.markDone(entry);
+                });
+    }
 
-            byte[] input = jsonData.getBytes(StandardCharsets.UTF_8);
-            conn.setFixedLengthStreamingMode(input.length);
+    private static boolean deliverAndSettle(OutboundSpool spool, OutboundSpool.Entry entry, String[] urls, byte[] input) {
+        int responseCode = deliver(urls, input);
+        if (entry != null) settle(spool, entry, responseCode);
+        return responseCode >= 200 && responseCode < 300;
+    }
 
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(input);
+    /**
+     * One non-blocking delivery attempt on the dispatcher thread. A route without budget, or a 429 within
+     * the retry limit, asks the dispatcher to hold the message and try again; anything else settles the spool entry.
+     */
+    private static OutboundDispatcher.Outcome attemptAndSettle(OutboundSpool spool, OutboundSpool.Entry entry,
+                                                              String[] urls, byte[] input, AtomicInteger rateLimited) {
+        String urlString = RATE_LIMITS.choose(urls);
+        long wait = RATE_LIMITS.tryAcquire(urlString);
+        if (wait > 0) return OutboundDispatcher.Outcome.retryAfter(wait);
+
+        int responseCode = postOnce(urlString, input);
+        if (responseCode == 429) {
+            if (rateLimited.incrementAndGet() <= MAX_RATE_LIMIT_RETRIES) {
+                return OutboundDispatcher.Outcome.retryAfter(RATE_LIMITS.minDelay(urls));
             }
+            Bukkit.getLogger().warning("[DiscordLink] Webhook POST dropped after " + MAX_RATE_LIMIT_RETRIES + " rate limited retries (URL=" + urlString + ")");
+        }
 
-            int responseCode = conn.getResponseCode();
+        if (entry != null) settle(spool, entry, responseCode);
+        return responseCode >= 200 && responseCode < 300 ? OutboundDispatcher.Outcome.SENT : OutboundDispatcher.Outcome.FAILED;
+    }
 
-            if (responseCode == 429) {
-                blockedUntilMillis = System.currentTimeMillis() + 5000L;
-                Bukkit.getLogger().warning("[DiscordLink] Rate limited by Discord (429). Backing off for 5 seconds.");
-                return false;
-            }
+    /**
+     * Re-sends payloads left pending in the spool by an earlier failure or restart.
+     * Chat and join/leave entries older than maxReplayAgeMillis are discarded; reports are always replayed.
+     * When a dispatcher is given the replays go through its lanes and wait their turn behind live traffic.
+     */
+    public static int replaySpool(OutboundSpool spool, OutboundDispatcher dispatcher, long maxReplayAgeMillis) {
+        if (spool == null) return 0;
 
-            if (responseCode < 200 || responseCode >= 300) {
-                Bukkit.getLogger().warning("[DiscordLink] Webhook POST failed with HTTP " + responseCode + " (URL=" + urlString + ")");
+        int delivered = 0;
+        long now = System.currentTimeMillis();
 
-                try {
-                    var is = conn.getErrorStream();
-                    if (is != null) {
-                        String body = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-                        if (!body.isBlank()) {
-                            if (body.length() > 1500) body = body.substring(0, 1500) + "...";
-                            Bukkit.getLogger().warning("[DiscordLink] Discord error body: " + body);
-                        }
-                    }
-                } catch (Exception ignored) {}
+        for (OutboundSpool.Entry entry : spool.takePending()) {
+            boolean stale = entry.kind() != OutboundKind.REPORT
+                    && maxReplayAgeMillis > 0
+                    && now - entry.createdAt() > maxReplayAgeMillis;
+            if (stale) {
+                spool.markDone(entry);
+                continue;
             }
 
-            return responseCode >= 200 && responseCode < 300;
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("[DiscordLink] Webhook POST failed.");
-            e.printStackTrace();
-            return false;
-        } finally {
-            if (conn != null) conn.disconnect();
+            String[] urls = POOLS.getOrDefault(entry.url(), new String[]{entry.url()});
+            boolean ok;
+            if (dispatcher == null) {
+                ok = deliverAndSettle(spool, entry, urls, entry.body());
+            } else {
+                AtomicInteger rateLimited = new AtomicInteger();
+                ok = dispatcher.submit(entry.kind(), urls,
+                        () -> attemptAndSettle(spool, entry, urls, entry.body(), rateLimited),
+                        () -> spool.release(entry)).join();
+            }
+            if (ok) delivered++;
         }
+        return delivered;
     }
 
-    private static String sanitizeMentions(String s) {
-        if (s == null) return "";
-        return s
-                .replace("@everyone", "@\u200Beveryone")
-                .replace("@here", "@\u200Bhere")
-                .replaceAll("<@&\\d+>", "[role]")
-                .replaceAll("<@!?\\d+>", "[user]");
+    private static void settle(OutboundSpool spool, OutboundSpool.Entry entry, int responseCode) {
+        boolean retryable = responseCode < 0 || responseCode == 429 || responseCode >= 500;
+        if (retryable) {
+            spool.release(entry);
+        } else {
+            spool.markDone(entry);
+        }
     }
 
-    private static JsonObject noMentions() {
-        JsonObject allowed = new JsonObject();
-        allowed.add("parse", new JsonArray());
-        allowed.add("users", new JsonArray());
-        allowed.add("roles", new JsonArray());
-        return allowed;
+    private static int deliver(String[] urls, byte[] input) {
+        String urlString = urls[0];
+        for (int attempt = 0; attempt <= MAX_RATE_LIMIT_RETRIES; attempt++) {
+            urlString = RATE_LIMITS.choose(urls);
+            try {
+                if (!RATE_LIMITS.acquire(urlString)) {
+                    Bukkit.getLogger().warning("[DiscordLink] Webhook POST dropped: still rate limited after waiting (URL=" + urlString + ")");
+                    return 429;
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+
+            int responseCode = postOnce(urlString, input);
+            if (responseCode != 429) return responseCode;
+        }
+
+        Bukkit.getLogger().warning("[DiscordLink] Webhook POST dropped after " + MAX_RATE_LIMIT_RETRIES + " rate limited retries (URL=" + urlString + ")");
+        return 429;
     }
 
-    private static JsonObject onlyUserMention(String discordId) {
-        JsonObject allowed = new JsonObject();
+    private static int postOnce(String urlString, byte[] input) {
+        boolean completed = false;
+        try {
+            HttpTransport transport = HttpTransport.get();
+            HttpRequest req = transport.request(URI.create(urlString))
+                    .header("Content-Type", "application/json; charset=UTF-8")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(input))
+                    .build();
 
-        allowed.add("parse", new JsonArray());
+            HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            int responseCode = res.statusCode();
 
-        JsonArray users = new JsonArray();
-        if (discordId != null && !discordId.isBlank()) users.add(discordId);
-        allowed.add("users", users);
+            long retryMillis = RATE_LIMITS.complete(urlString, responseCode, name -> res.headers().firstValue(name).orElse(null));
+            completed = true;
 
-        allowed.add("roles", new JsonArray());
+            if (responseCode == 429) {
+                String scope = RATE_LIMITS.isGloballyLimited() ? "global" : "route";
+                Bukkit.getLogger().warning("[DiscordLink] Rate limited by Discord (429, " + scope + "). Holding message for " + retryMillis + "ms.");
+                return responseCode;
+            }
 
-        return allowed;
-    }
+            if (responseCode < 200 || responseCode >= 300) {
+                Bukkit.getLogger().warning("[DiscordLink] Webhook POST failed with HTTP " + responseCode + " (URL=" + urlString + ")");
 
-    private static JsonArray arr(JsonObject... objs) {
-        JsonArray a = new JsonArray();
-        for (JsonObject o : objs) if (o != null) a.add(o);
-        return a;
+                String body = res.body();
+                if (body != null && !body.isBlank()) {
+                    if (body.length() > 1500) body = body.substring(0, 1500) + "...";
+                    Bukkit.getLogger().warning("[DiscordLink] Discord error body: " + body);
+                }
+            }
+
+            return responseCode;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            Bukkit.getLogger().warning("[DiscordLink] Webhook POST failed.");
+            e.printStackTrace();
+            return -1;
+        } finally {
+            if (!completed) RATE_LIMITS.cancel(urlString);
+        }
     }
 
-    private static JsonObject field(String name, String value, boolean inline) {
-        JsonObject f = new JsonObject();
-        f.addProperty("name", name);
-        f.addProperty("value", value);
-        f.addProperty("inline", inline);
-        return f;
+    private static void writeField(JsonPayloadWriter w, String name, String value, boolean inline) {
+        w.beginObject()
+                .field("name", name)
+                .field("value", value)
+                .field("inline", inline)
+                .endObject();
     }
 
     private static String safe(String s) {
@@ -0,0 +1,145 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public final class HttpTransport {
+
+    public static final String USER_AGENT = "DiscordLink/1.0";
+
+    private static final Duration SHUTDOWN_WAIT = Duration.ofSeconds(2);
+
+    private static volatile HttpTransport shared;
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+
+    private HttpTransport(int poolSize, long connectTimeoutMillis, long requestTimeoutMillis) {
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, poolSize), r -> {
+            Thread t = new Thread(r, "DiscordLink-Http-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.requestTimeout = Duration.ofMillis(Math.max(1L, requestTimeoutMillis));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(Math.max(1L, connectTimeoutMillis)))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Replaces the shared transport. The previous client stops taking requests but finishes the
+     * ones in flight (up to its request timeout) in the background before it is closed.
+     * The JDK reads its connection pool properties once,
+     * so pool size and keep-alive only take effect when set before the first client is built.
+     */
+    public static synchronized HttpTransport configure(int poolSize, long connectTimeoutMillis, long requestTimeoutMillis, long keepAliveSeconds) {
+        if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize", String.valueOf(Math.max(1, poolSize)));
+        }
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(Math.max(1L, keepAliveSeconds)));
+        }
+
+        HttpTransport previous = shared;
+        shared = new HttpTransport(poolSize, connectTimeoutMillis, requestTimeoutMillis);
+        if (previous != null) {
+            Thread drain = new Thread(() -> previous.close(previous.requestTimeout.plusSeconds(1)), "DiscordLink-Http-Drain");
+            drain.setDaemon(true);
+            drain.start();
+        }
+        return shared;
+    }
+
+    public static HttpTransport get() {
+        HttpTransport t = shared;
+        if (t != null) return t;
+        synchronized (HttpTransport.class) {
+            if (shared == null) shared = new HttpTransport(4, 5000L, 8000L);
+            return shared;
+        }
+    }
+
+    public static synchronized void shutdown() {
+        HttpTransport previous = shared;
+        shared = null;
+        if (previous != null) previous.close(SHUTDOWN_WAIT);
+    }
+
+    public HttpClient client() {
+        return client;
+    }
+
+    public HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("User-Agent", USER_AGENT);
+    }
+
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws Exception {
+        return client.send(request, handler);
+    }
+
+    /**
+     * Opens connections to the origins of the given URLs in the background so the first
+     * real request does not pay the TCP and TLS handshake.
+     */
+    public void prewarm(Logger logger, String... urls) {
+        Set<URI> origins = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (url == null || url.isBlank()) continue;
+            try {
+                URI uri = URI.create(url.trim());
+                if (uri.getScheme() == null || uri.getHost() == null) continue;
+                origins.add(new URI(uri.getScheme(), null, uri.getHost(), uri.getPort(), "/", null, null));
+            } catch (Exception ignored) {}
+        }
+
+        for (URI origin : origins) {
+            HttpRequest req = request(origin)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build();
+            client.sendAsync(req, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((res, err) -> {
+                        if (err != null && logger != null) {
+                            logger.fine("HTTP prewarm of " + origin + " failed: " + err.getMessage());
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Lets in-flight requests finish for up to the given time, then aborts the rest and closes
+     * the client's connections and selector thread before its executor.
+     */
+    private void close(Duration wait) {
+        client.shutdown();
+        try {
+            if (!client.awaitTermination(wait)) {
+                client.shutdownNow();
+                client.awaitTermination(SHUTDOWN_WAIT);
+            }
+
+            executor.shutdown();
+            if (!executor.awaitTermination(SHUTDOWN_WAIT.toMillis(), TimeUnit.MILLISECONDS)) executor.shutdownNow();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            client.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON writer that encodes straight into a reusable UTF-8 buffer.
+ * Output matches Gson's JsonElement.toString() followed by getBytes(UTF_8), including
+ * its escaping rules and the '?' replacement of unpaired surrogates.
+ */
+public final class JsonPayloadWriter {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+    private static final int MAX_DEPTH = 32;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private static final ThreadLocal<JsonPayloadWriter> LOCAL = ThreadLocal.withInitial(JsonPayloadWriter::new);
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int len = 0;
+
+    private final boolean[] nonEmpty = new boolean[MAX_DEPTH];
+    private int depth = 0;
+    private boolean afterName = false;
+
+    private JsonPayloadWriter() {}
+
+    public static JsonPayloadWriter acquire() {
+        JsonPayloadWriter w = LOCAL.get();
+        w.reset();
+        return w;
+    }
+
+    /**
+     * Encodes a constant JSON fragment once so it can be spliced in with {@link #rawValue}.
+     */
+    public static byte[] preEncode(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public JsonPayloadWriter beginObject() {
+        beforeValue();
+        writeByte('{');
+        push();
+        return this;
+    }
+
+    public JsonPayloadWriter endObject() {
+        depth--;
+        writeByte('}');
+        return this;
+    }
+
+    public JsonPayloadWriter beginArray() {
+        beforeValue();
+        writeByte('[');
+        push();
+        return this;
+    }
+
+    public JsonPayloadWriter endArray() {
+        depth--;
+        writeByte(']');
+        return this;
+    }
+
+    public JsonPayloadWriter name(String name) {
+        beforeValue();
+        writeString(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonPayloadWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            writeBytes(NULL);
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonPayloadWriter value(long value) {
+        beforeValue();
+        writeAscii(Long.toString(value));
+        return this;
+    }
+
+    public JsonPayloadWriter value(boolean value) {
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public JsonPayloadWriter rawValue(byte[] encodedJson) {
+        beforeValue();
+        writeBytes(encodedJson);
+        return this;
+    }
+
+    public JsonPayloadWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    public JsonPayloadWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, len);
+    }
+
+    private void reset() {
+        if (buf.length > RETAINED_CAPACITY) buf = new byte[INITIAL_CAPACITY];
+        len = 0;
+        depth = 0;
+        afterName = false;
+    }
+
+    private void push() {
+        nonEmpty[depth++] = false;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (nonEmpty[depth - 1]) writeByte(',');
+            nonEmpty[depth - 1] = true;
+        }
+    }
+
+    private void writeString(String s) {
+        writeByte('"');
+
+        int n = s.length();
+        ensure(n + 2);
+
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+
+            if (c < 0x80) {
+                if (c < 0x20 || c == '"' || c == '\\') {
+                    writeEscape(c);
+                } else {
+                    ensure(1);
+                    buf[len++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                ensure(2);
+                buf[len++] = (byte) (0xC0 | (c >> 6));
+                buf[len++] = (byte) (0x80 | (c & 0x3F));
+            } else if (c == '\u2028' || c == '\u2029') {
+                writeUnicodeEscape(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                ensure(4);
+                buf[len++] = (byte) (0xF0 | (cp >> 18));
+                buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                ensure(1);
+                buf[len++] = '?';
+            } else {
+                ensure(3);
+                buf[len++] = (byte) (0xE0 | (c >> 12));
+                buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        writeByte('"');
+    }
+
+    private void writeEscape(char c) {
+        switch (c) {
+            case '"' -> writeAscii("\\\"");
+            case '\\' -> writeAscii("\\\\");
+            case '\t' -> writeAscii("\\t");
+            case '\b' -> writeAscii("\\b");
+            case '\n' -> writeAscii("\\n");
+            case '\r' -> writeAscii("\\r");
+            case '\f' -> writeAscii("\\f");
+            default -> writeUnicodeEscape(c);
+        }
+    }
+
+    private void writeUnicodeEscape(char c) {
+        ensure(6);
+        buf[len++] = '\\';
+        buf[len++] = 'u';
+        buf[len++] = HEX[(c >> 12) & 0xF];
+        buf[len++] = HEX[(c >> 8) & 0xF];
+        buf[len++] = HEX[(c >> 4) & 0xF];
+        buf[len++] = HEX[c & 0xF];
+    }
+
+    private void writeAscii(String s) {
+        int n = s.length();
+        ensure(n);
+        for (int i = 0; i < n; i++) buf[len++] = (byte) s.charAt(i);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    private void writeByte(char c) {
+        ensure(1);
+        buf[len++] = (byte) c;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra <= buf.length) return;
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+    }
+}
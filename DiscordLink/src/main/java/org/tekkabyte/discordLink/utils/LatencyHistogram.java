@@ -0,0 +1,57 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two millisecond buckets (&lt;1, 1, 2, 4 ... 16384+ ms).
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 16;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sumMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public void record(long millis) {
+        long ms = Math.max(0L, millis);
+        int bucket = ms == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(ms));
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+        sumMillis.addAndGet(ms);
+        maxMillis.accumulateAndGet(ms, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * Upper bound in milliseconds of the bucket holding the given quantile (0..1).
+     */
+    public long percentile(double q) {
+        long n = total.get();
+        if (n == 0) return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return i == BUCKETS - 1 ? maxMillis.get() : (1L << i) - 1;
+        }
+        return maxMillis.get();
+    }
+
+    public String describe() {
+        long n = total.get();
+        if (n == 0) return "no samples";
+        return n + " runs, avg " + (sumMillis.get() / n) + "ms"
+                + ", p50 <=" + percentile(0.50) + "ms"
+                + ", p95 <=" + percentile(0.95) + "ms"
+                + ", p99 <=" + percentile(0.99) + "ms"
+                + ", max " + maxMillis.get() + "ms";
+    }
+}
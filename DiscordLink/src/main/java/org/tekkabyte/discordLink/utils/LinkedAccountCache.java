@@ -0,0 +1,191 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Linked Discord id per Minecraft account. Linked and unlinked answers are kept for separate
+ * TTLs and evicted by the timing wheel once they expire; failed lookups are not cached, and neither
+ * is "not linked" while the player holds a live link code, since the link can happen at any moment.
+ * Concurrent lookups of the same player share one request, and the least recently used entries
+ * are dropped once the cache is full.
+ */
+public class LinkedAccountCache {
+
+    public interface Loader {
+        /**
+         * Returns the linked Discord id, or null if the account is not linked. Throws if the lookup failed.
+         */
+        String load(UUID minecraftUuid) throws Exception;
+    }
+
+    private final Loader loader;
+    private final Executor executor;
+    private final TimingWheel expiries;
+    private final Predicate<UUID> linkPending;
+    private final long linkedTtlMillis;
+    private final long unlinkedTtlMillis;
+    private final int maxEntries;
+
+    private final Map<UUID, Entry> entries;
+    private final Map<UUID, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong unlinkedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LinkedAccountCache(Loader loader, Executor executor, TimingWheel expiries, Predicate<UUID> linkPending,
+                              long linkedTtlMillis, long unlinkedTtlMillis, int maxEntries) {
+        this.loader = loader;
+        this.executor = executor;
+        this.expiries = expiries;
+        this.linkPending = linkPending == null ? uuid -> false : linkPending;
+        this.linkedTtlMillis = Math.max(0L, linkedTtlMillis);
+        this.unlinkedTtlMillis = Math.max(0L, unlinkedTtlMillis);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() <= LinkedAccountCache.this.maxEntries) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Blocks for the lookup on a cache miss, so call it off the main thread.
+     */
+    public String getLinkedDiscordId(UUID minecraftUuid) throws Exception {
+        try {
+            return lookup(minecraftUuid).get().discordId();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    public boolean isLinked(UUID minecraftUuid) throws Exception {
+        return getLinkedDiscordId(minecraftUuid) != null;
+    }
+
+    public CompletableFuture<Entry> lookup(UUID minecraftUuid) {
+        Entry cached = fresh(minecraftUuid);
+        if (cached != null) {
+            (cached.isLinked() ? hits : unlinkedHits).incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        misses.incrementAndGet();
+        return load(minecraftUuid);
+    }
+
+    /**
+     * Starts a background lookup unless a fresh entry or a lookup already exists.
+     */
+    public void prefetch(UUID minecraftUuid) {
+        if (fresh(minecraftUuid) == null) load(minecraftUuid);
+    }
+
+    public void invalidate(UUID minecraftUuid) {
+        synchronized (entries) {
+            entries.remove(minecraftUuid);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public double getHitRate() {
+        long found = hits.get() + unlinkedHits.get();
+        long total = found + misses.get();
+        return total == 0 ? 0.0 : (double) found / total;
+    }
+
+    public String describeStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return size + " cached, " + Math.round(getHitRate() * 100) + "% hit rate"
+                + " (" + hits.get() + " linked, " + unlinkedHits.get() + " unlinked, " + misses.get() + " misses)"
+                + ", " + coalesced.get() + " shared lookups, " + loadFailures.get() + " failed, " + evictions.get() + " evicted";
+    }
+
+    /**
+     * Only removes the entry it was scheduled for, not a newer one for the same player.
+     */
+    private void evict(UUID minecraftUuid, Entry entry) {
+        synchronized (entries) {
+            if (entries.get(minecraftUuid) == entry) entries.remove(minecraftUuid);
+        }
+    }
+
+    private Entry fresh(UUID minecraftUuid) {
+        synchronized (entries) {
+            Entry entry = entries.get(minecraftUuid);
+            if (entry == null) return null;
+            boolean stale = entry.expiresAt() <= System.currentTimeMillis()
+                    || (!entry.isLinked() && linkPending.test(minecraftUuid));
+            if (!stale) return entry;
+            entries.remove(minecraftUuid);
+            return null;
+        }
+    }
+
+    private CompletableFuture<Entry> load(UUID minecraftUuid) {
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = loading.putIfAbsent(minecraftUuid, created);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    String discordId = loader.load(minecraftUuid);
+                    boolean linked = discordId != null && !discordId.isBlank();
+                    long ttl = linked ? linkedTtlMillis : linkPending.test(minecraftUuid) ? 0L : unlinkedTtlMillis;
+                    Entry entry = new Entry(linked ? discordId.trim() : null, System.currentTimeMillis() + ttl);
+
+                    if (ttl > 0) {
+                        synchronized (entries) {
+                            entries.put(minecraftUuid, entry);
+                        }
+                        expiries.scheduleAt(entry.expiresAt(), () -> evict(minecraftUuid, entry));
+                    }
+                    loading.remove(minecraftUuid, created);
+                    created.complete(entry);
+                } catch (Exception e) {
+                    loadFailures.incrementAndGet();
+                    loading.remove(minecraftUuid, created);
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            loading.remove(minecraftUuid, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    public record Entry(String discordId, long expiresAt) {
+        public boolean isLinked() {
+            return discordId != null;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.tekkabyte.discordLink.utils;
+
+import org.bukkit.Bukkit;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single sender thread that drains one bounded queue per {@link OutboundKind}.
+ * A lane is only picked when one of the routes of its head message has rate limit budget, so a
+ * backed-up chat webhook never holds a report or an /online reply behind it. Actions never wait
+ * for budget themselves: when a send finds its route limited or gets a 429 it asks to be retried,
+ * goes back to the head of its lane with a not-before time, and the worker moves on to other lanes.
+ */
+public class OutboundDispatcher {
+
+    public enum Mode { STRICT, WEIGHTED }
+
+    private static final long IDLE_WAIT_MILLIS = 1000L;
+
+    /**
+     * What one send attempt came to: delivered, failed for good, or to be tried again no sooner
+     * than retryAfterMillis from now.
+     */
+    public record Outcome(boolean ok, long retryAfterMillis) {
+        public static final Outcome SENT = new Outcome(true, -1L);
+        public static final Outcome FAILED = new Outcome(false, -1L);
+
+        public static Outcome retryAfter(long millis) {
+            return new Outcome(false, Math.max(0L, millis));
+        }
+
+        public boolean isRetry() {
+            return retryAfterMillis >= 0;
+        }
+    }
+
+    private final Mode mode;
+    private final WebhookRateLimiter rateLimits;
+    private final Lane[] lanes;
+    private final Thread worker;
+
+    private final Object lock = new Object();
+    private volatile boolean running = true;
+    private long drainDeadline = Long.MAX_VALUE;
+
+    public OutboundDispatcher(Mode mode, WebhookRateLimiter rateLimits, int[] capacities, int[] weights) {
+        this.mode = mode == null ? Mode.STRICT : mode;
+        this.rateLimits = rateLimits;
+
+        OutboundKind[] kinds = OutboundKind.values();
+        this.lanes = new Lane[kinds.length];
+        for (OutboundKind kind : kinds) {
+            int i = kind.ordinal();
+            int capacity = capacities != null && i < capacities.length ? capacities[i] : kind.getDefaultCapacity();
+            int weight = weights != null && i < weights.length ? weights[i] : kind.getDefaultWeight();
+            lanes[i] = new Lane(kind, Math.max(1, capacity), Math.max(1, weight));
+        }
+
+        this.worker = new Thread(this::run, "DiscordLink-Outbound");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public static Mode parseMode(String s) {
+        if (s == null) return Mode.STRICT;
+        try {
+            return Mode.valueOf(s.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Mode.STRICT;
+        }
+    }
+
+    public CompletableFuture<Boolean> submit(OutboundKind kind, String route, Supplier<Outcome> action, Runnable onReject) {
+        return submit(kind, new String[]{route}, action, onReject);
+    }
+
+    /**
+     * Queues a send on the lane of the given kind; it becomes eligible once any of the routes has budget.
+     * The action runs on the dispatcher thread and must not block on rate limits; a retry outcome puts
+     * the message back at the head of its lane, otherwise the outcome completes the returned future. When the
+     * lane is full the message is rejected, onReject runs on the caller's thread and the future completes with false.
+     */
+    public CompletableFuture<Boolean> submit(OutboundKind kind, String[] routes, Supplier<Outcome> action, Runnable onReject) {
+        Lane lane = lanes[kind.ordinal()];
+        Task task = new Task(routes, action);
+
+        boolean accepted;
+        synchronized (lock) {
+            accepted = running && lane.queue.size() < lane.capacity;
+            if (accepted) {
+                lane.queue.addLast(task);
+                lane.enqueued.incrementAndGet();
+                lock.notifyAll();
+            }
+        }
+
+        if (!accepted) {
+            lane.rejected.incrementAndGet();
+            if (onReject != null) onReject.run();
+            task.result.complete(false);
+        }
+        return task.result;
+    }
+
+    public int depth(OutboundKind kind) {
+        synchronized (lock) {
+            return lanes[kind.ordinal()].queue.size();
+        }
+    }
+
+    public String describeStats() {
+        StringBuilder sb = new StringBuilder(mode.name().toLowerCase(Locale.ROOT));
+        synchronized (lock) {
+            for (Lane lane : lanes) {
+                long taken = lane.taken.get();
+                sb.append(" | ").append(lane.kind.name().toLowerCase(Locale.ROOT))
+                        .append(": depth ").append(lane.queue.size()).append('/').append(lane.capacity)
+                        .append(", queued ").append(lane.enqueued.get())
+                        .append(", sent ").append(lane.sent.get())
+                        .append(", failed ").append(lane.failed.get())
+                        .append(", deferred ").append(lane.deferred.get())
+                        .append(", rejected ").append(lane.rejected.get())
+                        .append(", avg wait ").append(taken == 0 ? 0 : lane.totalWaitMillis.get() / taken).append("ms")
+                        .append(", max wait ").append(lane.maxWaitMillis.get()).append("ms");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stops accepting messages, keeps sending for up to drainMillis and then fails whatever is left.
+     */
+    public void shutdown(long drainMillis) {
+        synchronized (lock) {
+            running = false;
+            drainDeadline = System.currentTimeMillis() + Math.max(0L, drainMillis);
+            lock.notifyAll();
+        }
+
+        try {
+            worker.join(Math.max(1L, drainMillis) + 1000L);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) worker.interrupt();
+
+        synchronized (lock) {
+            for (Lane lane : lanes) {
+                Task t;
+                while ((t = lane.queue.pollFirst()) != null) t.result.complete(false);
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Task task;
+            Lane lane;
+
+            synchronized (lock) {
+                if (!running && (isEmpty() || System.currentTimeMillis() >= drainDeadline)) return;
+
+                long[] wait = {running ? IDLE_WAIT_MILLIS : Math.max(1L, drainDeadline - System.currentTimeMillis())};
+                lane = pick(wait);
+                if (lane == null) {
+                    try {
+                        lock.wait(Math.max(1L, wait[0]));
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                    continue;
+                }
+                task = lane.queue.pollFirst();
+            }
+
+            if (task.attempts++ == 0) {
+                long waited = System.currentTimeMillis() - task.enqueuedAt;
+                lane.taken.incrementAndGet();
+                lane.totalWaitMillis.addAndGet(waited);
+                lane.maxWaitMillis.accumulateAndGet(waited, Math::max);
+            }
+
+            Outcome outcome = Outcome.FAILED;
+            try {
+                outcome = task.action.get();
+            } catch (Exception e) {
+                Bukkit.getLogger().warning("[DiscordLink] Outbound " + lane.kind + " send failed: " + e.getMessage());
+            }
+
+            if (outcome.isRetry()) {
+                synchronized (lock) {
+                    task.notBefore = System.currentTimeMillis() + outcome.retryAfterMillis();
+                    lane.queue.addFirst(task);
+                    lane.deferred.incrementAndGet();
+                }
+                continue;
+            }
+
+            (outcome.ok() ? lane.sent : lane.failed).incrementAndGet();
+            task.result.complete(outcome.ok());
+        }
+    }
+
+    private boolean isEmpty() {
+        for (Lane lane : lanes) {
+            if (!lane.queue.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    // Caller holds lock. Returns the lane to send from next, or null and the time to wait in wait[0].
+    private Lane pick(long[] wait) {
+        Lane best = null;
+        int totalWeight = 0;
+
+        for (Lane lane : lanes) {
+            Task head = lane.queue.peekFirst();
+            if (head == null) continue;
+
+            long delay = Math.max(head.notBefore - System.currentTimeMillis(), rateLimits.minDelay(head.routes));
+            if (delay > 0) {
+                wait[0] = Math.min(wait[0], delay);
+                continue;
+            }
+
+            if (mode == Mode.STRICT) return lane;
+
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.currentWeight > best.currentWeight) best = lane;
+        }
+
+        if (best != null) best.currentWeight -= totalWeight;
+        return best;
+    }
+
+    private static final class Lane {
+        private final OutboundKind kind;
+        private final int capacity;
+        private final int weight;
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+        private int currentWeight = 0;
+
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong taken = new AtomicLong();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong deferred = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+
+        private Lane(OutboundKind kind, int capacity, int weight) {
+            this.kind = kind;
+            this.capacity = capacity;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Task {
+        private final String[] routes;
+        private final Supplier<Outcome> action;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private long notBefore = 0L;
+        private int attempts = 0;
+
+        private Task(String[] routes, Supplier<Outcome> action) {
+            this.routes = routes;
+            this.action = action;
+        }
+    }
+}
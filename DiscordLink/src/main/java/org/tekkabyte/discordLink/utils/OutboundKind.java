@@ -0,0 +1,34 @@
+package org.tekkabyte.discordLink.utils;
+
+/**
+ * Outbound lanes in strict priority order. The defaults apply when config.yml leaves the
+ * outbound.queue-capacity / outbound.weight key out, and match the shipped config.
+ */
+public enum OutboundKind {
+    REPORT(100, 8),
+    ONLINE(20, 4),
+    CHAT(500, 2),
+    PRESENCE(200, 1);
+
+    private static final OutboundKind[] VALUES = values();
+
+    private final int defaultCapacity;
+    private final int defaultWeight;
+
+    OutboundKind(int defaultCapacity, int defaultWeight) {
+        this.defaultCapacity = defaultCapacity;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public int getDefaultCapacity() {
+        return defaultCapacity;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public static OutboundKind fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : CHAT;
+    }
+}
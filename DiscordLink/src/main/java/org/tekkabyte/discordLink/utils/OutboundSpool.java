@@ -0,0 +1,421 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped log of outbound webhook payloads.
+ *
+ * Record layout: status(1) kind(1) createdAt(8) urlLength(4) bodyLength(4) crc32(4) url body.
+ * The status byte is written last so a torn append is never replayed, and it is flipped
+ * to DONE in place once Discord accepted the payload. Segments whose records are all done
+ * are deleted; when the segment cap is reached the oldest segment is compacted, keeping
+ * only pending reports and logging every other entry it drops. Reports are never dropped: once
+ * the spool holds nothing but pending reports it grows past the cap for further reports and
+ * refuses other kinds.
+ */
+public class OutboundSpool {
+
+    private static final byte EMPTY = 0;
+    private static final byte PENDING = 1;
+    private static final byte DONE = 2;
+
+    private static final int HEADER_SIZE = 1 + 1 + 8 + 4 + 4 + 4;
+    private static final String PREFIX = "spool-";
+    private static final String SUFFIX = ".dat";
+
+    private final File dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Logger logger;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Set<Entry> inFlight = ConcurrentHashMap.newKeySet();
+    // in-flight entries copied elsewhere by compaction, so their outcome settles the copy
+    private final Map<Entry, Entry> relocated = new HashMap<>();
+
+    private Segment active;
+    private long nextSeq = 0L;
+    private long droppedEntries = 0L;
+    private boolean closed = false;
+
+    public OutboundSpool(File dir, int segmentSize, int maxSegments, Logger logger) throws IOException {
+        this.dir = dir;
+        this.segmentSize = Math.max(64 * 1024, segmentSize);
+        this.maxSegments = Math.max(2, maxSegments);
+        this.logger = logger;
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create spool directory " + dir);
+        }
+
+        File[] files = dir.listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(OutboundSpool::seqOf));
+            for (File f : files) {
+                long seq = seqOf(f);
+                if (seq < 0) continue;
+                nextSeq = Math.max(nextSeq, seq + 1);
+
+                Segment seg = Segment.open(f, (int) Math.max(f.length(), 1L));
+                if (seg.scan().isEmpty()) {
+                    seg.delete();
+                } else {
+                    segments.addLast(seg);
+                }
+            }
+        }
+
+        active = newSegment();
+    }
+
+    public synchronized Entry append(OutboundKind kind, String url, byte[] body) {
+        if (closed) return null;
+
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_SIZE + urlBytes.length + body.length;
+        if (size > segmentSize) return null;
+
+        try {
+            if (active.writePos + size > active.capacity && !rotate(kind, size)) {
+                logger.warning("Spool is full of pending reports; " + kind + " message not spooled.");
+                return null;
+            }
+
+            Entry entry = active.write(kind, System.currentTimeMillis(), urlBytes, url, body);
+            if (kind == OutboundKind.REPORT) active.buffer.force();
+            inFlight.add(entry);
+            return entry;
+        } catch (IOException e) {
+            logger.warning("Spool append failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void markDone(Entry entry) {
+        if (entry == null) return;
+        entry.done = true;
+        entry = current(entry);
+        inFlight.remove(entry);
+
+        Segment seg = entry.segment;
+        if (seg.closed) return;
+        if (seg.buffer.get(entry.offset) != PENDING) return;
+
+        seg.buffer.put(entry.offset, DONE);
+        seg.live--;
+
+        if (seg.live <= 0 && seg != active) {
+            segments.remove(seg);
+            seg.delete();
+        }
+    }
+
+    public synchronized void release(Entry entry) {
+        if (entry != null) inFlight.remove(current(entry));
+    }
+
+    /**
+     * Returns every pending entry that is not currently being delivered and marks them in flight.
+     * Callers must hand each entry back through {@link #markDone} or {@link #release}.
+     */
+    public synchronized List<Entry> takePending() {
+        List<Entry> out = new ArrayList<>();
+        for (Segment seg : segments) {
+            if (seg.closed) continue;
+            for (Entry e : seg.scan()) {
+                if (inFlight.add(e)) out.add(e);
+            }
+        }
+        return out;
+    }
+
+    public synchronized int pendingCount() {
+        int n = 0;
+        for (Segment seg : segments) n += Math.max(0, seg.live);
+        return n;
+    }
+
+    public synchronized long getDroppedEntries() {
+        return droppedEntries;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        for (Segment seg : segments) {
+            try {
+                seg.buffer.force();
+            } catch (Exception ignored) {}
+            seg.close();
+        }
+        segments.clear();
+        inFlight.clear();
+        relocated.clear();
+    }
+
+    /**
+     * Makes room in the active segment for a record of the given size, compacting old segments first
+     * while the cap is reached. Returns false, leaving the full active segment in place, when only
+     * pending reports are left and the record is not a report.
+     */
+    private boolean rotate(OutboundKind kind, int size) throws IOException {
+        if (active.live <= 0) {
+            segments.remove(active);
+            active.delete();
+        }
+
+        while (segments.size() >= maxSegments && compactOldest()) {
+            // each pass reclaims at least one record
+        }
+        if (!active.closed && active.writePos + size <= active.capacity) return true;
+
+        if (!active.closed && segments.size() >= maxSegments) {
+            if (kind != OutboundKind.REPORT) return false;
+            logger.warning("Spool holds " + segments.size() + " segments of pending reports; growing past the cap of " + maxSegments + ".");
+        }
+        active = newSegment();
+        return true;
+    }
+
+    /**
+     * Compacts the oldest segment holding anything besides pending reports: its reports move to the
+     * newest segment, spilling into fresh segments rather than dropping any, and everything else is
+     * dropped. The active segment is rotated out first when it is the one compacted. Returns false
+     * without changing anything when there is nothing to reclaim.
+     */
+    private boolean compactOldest() throws IOException {
+        Segment oldest = null;
+        List<Entry> pending = null;
+        for (Segment seg : segments) {
+            List<Entry> entries = seg.scan();
+            int reportBytes = 0;
+            boolean othersPending = false;
+            for (Entry e : entries) {
+                if (e.kind == OutboundKind.REPORT) reportBytes += e.recordSize();
+                else othersPending = true;
+            }
+            if (othersPending || reportBytes < seg.writePos) {
+                oldest = seg;
+                pending = entries;
+                break;
+            }
+        }
+        if (oldest == null) return false;
+
+        if (oldest == active) active = newSegment();
+        segments.remove(oldest);
+        int dropped = 0;
+        for (Entry e : pending) {
+            if (e.kind != OutboundKind.REPORT) {
+                droppedEntries++;
+                dropped++;
+                logger.warning("Spool compaction dropped a pending " + e.kind + " message from "
+                        + Instant.ofEpochMilli(e.createdAt) + " (" + e.body.length + " bytes).");
+                continue;
+            }
+
+            if (active.closed || active.writePos + e.recordSize() > active.capacity) active = newSegment();
+            Entry copy = active.write(e.kind, e.createdAt, e.url.getBytes(StandardCharsets.UTF_8), e.url, e.body);
+            active.buffer.force();
+            if (inFlight.remove(e)) {
+                // still being delivered: keep the copy out of replays and settle it with the original
+                inFlight.add(copy);
+                relocated.put(e, copy);
+            }
+        }
+        oldest.delete();
+        logger.warning("Spool reached " + maxSegments + " segments; compacted oldest segment (" + dropped + " dropped, "
+                + droppedEntries + " so far).");
+        return true;
+    }
+
+    /**
+     * Follows compaction moves to the record that now holds the entry.
+     */
+    private Entry current(Entry entry) {
+        Entry moved;
+        while ((moved = relocated.remove(entry)) != null) entry = moved;
+        return entry;
+    }
+
+    private Segment newSegment() throws IOException {
+        long seq = nextSeq++;
+        Segment seg = Segment.open(new File(dir, PREFIX + String.format("%012d", seq) + SUFFIX), segmentSize);
+        segments.addLast(seg);
+        return seg;
+    }
+
+    private static long seqOf(File f) {
+        String name = f.getName();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (Exception e) {
+            return -1L;
+        }
+    }
+
+    public static final class Entry {
+        private final Segment segment;
+        private final int offset;
+        private final OutboundKind kind;
+        private final long createdAt;
+        private final String url;
+        private final byte[] body;
+        private volatile boolean done = false;
+
+        private Entry(Segment segment, int offset, OutboundKind kind, long createdAt, String url, byte[] body) {
+            this.segment = segment;
+            this.offset = offset;
+            this.kind = kind;
+            this.createdAt = createdAt;
+            this.url = url;
+            this.body = body;
+        }
+
+        public OutboundKind kind() { return kind; }
+        public long createdAt() { return createdAt; }
+        public String url() { return url; }
+        public byte[] body() { return body; }
+
+        /** True once this entry was handed to {@link #markDone}; a released entry stays pending for replay. */
+        public boolean isDone() { return done; }
+
+        private int recordSize() {
+            return HEADER_SIZE + url.getBytes(StandardCharsets.UTF_8).length + body.length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry other && other.segment == segment && other.offset == offset;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(segment) * 31 + offset;
+        }
+    }
+
+    private static final class Segment {
+        private final File file;
+        private final RandomAccessFile raf;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+
+        private int writePos = 0;
+        private int live = 0;
+        private boolean closed = false;
+
+        private Segment(File file, RandomAccessFile raf, MappedByteBuffer buffer, int capacity) {
+            this.file = file;
+            this.raf = raf;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        static Segment open(File file, int size) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                if (raf.length() < size) raf.setLength(size);
+                int capacity = (int) raf.length();
+                MappedByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                return new Segment(file, raf, buf, capacity);
+            } catch (IOException e) {
+                raf.close();
+                throw e;
+            }
+        }
+
+        Entry write(OutboundKind kind, long createdAt, byte[] urlBytes, String url, byte[] body) {
+            int offset = writePos;
+
+            CRC32 crc = new CRC32();
+            crc.update(urlBytes);
+            crc.update(body);
+
+            buffer.put(offset + 1, (byte) kind.ordinal());
+            buffer.putLong(offset + 2, createdAt);
+            buffer.putInt(offset + 10, urlBytes.length);
+            buffer.putInt(offset + 14, body.length);
+            buffer.putInt(offset + 18, (int) crc.getValue());
+            buffer.put(offset + HEADER_SIZE, urlBytes);
+            buffer.put(offset + HEADER_SIZE + urlBytes.length, body);
+            buffer.put(offset, PENDING);
+
+            writePos = offset + HEADER_SIZE + urlBytes.length + body.length;
+            live++;
+            return new Entry(this, offset, kind, createdAt, url, body);
+        }
+
+        List<Entry> scan() {
+            List<Entry> pending = new ArrayList<>();
+            int pos = 0;
+            int liveCount = 0;
+
+            while (pos + HEADER_SIZE <= capacity) {
+                byte status = buffer.get(pos);
+                if (status == EMPTY) break;
+
+                int urlLen = buffer.getInt(pos + 10);
+                int bodyLen = buffer.getInt(pos + 14);
+                if (urlLen < 0 || bodyLen < 0 || pos + HEADER_SIZE + (long) urlLen + bodyLen > capacity) break;
+
+                if (status == PENDING) {
+                    byte[] urlBytes = new byte[urlLen];
+                    byte[] body = new byte[bodyLen];
+                    buffer.get(pos + HEADER_SIZE, urlBytes);
+                    buffer.get(pos + HEADER_SIZE + urlLen, body);
+
+                    CRC32 crc = new CRC32();
+                    crc.update(urlBytes);
+                    crc.update(body);
+                    if ((int) crc.getValue() != buffer.getInt(pos + 18)) {
+                        // corrupt record: its lengths are in bounds, so skip it and keep the ones after it
+                        pos += HEADER_SIZE + urlLen + bodyLen;
+                        continue;
+                    }
+
+                    OutboundKind kind = OutboundKind.fromOrdinal(buffer.get(pos + 1));
+                    long createdAt = buffer.getLong(pos + 2);
+                    pending.add(new Entry(this, pos, kind, createdAt, new String(urlBytes, StandardCharsets.UTF_8), body));
+                    liveCount++;
+                }
+
+                pos += HEADER_SIZE + urlLen + bodyLen;
+            }
+
+            writePos = pos;
+            live = liveCount;
+            return pending;
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            try {
+                raf.close();
+            } catch (IOException ignored) {}
+        }
+
+        void delete() {
+            close();
+            if (!file.delete()) file.deleteOnExit();
+        }
+    }
+}
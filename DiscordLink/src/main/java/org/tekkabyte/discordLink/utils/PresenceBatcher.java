@@ -0,0 +1,107 @@
+package org.tekkabyte.discordLink.utils;
+
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PresenceBatcher {
+
+    public interface Sink {
+        void send(List<String> joined, List<String> left);
+    }
+
+    private final long windowMillis;
+    private final Sink sink;
+    private final ScheduledExecutorService executor;
+
+    // +1 joined, -1 left within the current window; a join and a leave of the same player cancel out
+    private final Map<String, Integer> pending = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    private final AtomicLong eventsQueued = new AtomicLong();
+    private final AtomicLong eventsCancelled = new AtomicLong();
+    private final AtomicLong postsSent = new AtomicLong();
+
+    public PresenceBatcher(long windowMillis, Sink sink) {
+        this.windowMillis = Math.max(1L, windowMillis);
+        this.sink = sink;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DiscordLink-PresenceRelay");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void joined(String playerName) {
+        record(playerName, 1);
+    }
+
+    public void left(String playerName) {
+        record(playerName, -1);
+    }
+
+    public void shutdown() {
+        executor.execute(this::flush);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    public long getEventsQueued() { return eventsQueued.get(); }
+    public long getEventsCancelled() { return eventsCancelled.get(); }
+    public long getPostsSent() { return postsSent.get(); }
+
+    private void record(String playerName, int delta) {
+        if (playerName == null || playerName.isEmpty()) return;
+        eventsQueued.incrementAndGet();
+
+        synchronized (this) {
+            Integer current = pending.get(playerName);
+            if (current != null && current != delta) {
+                pending.remove(playerName);
+                eventsCancelled.addAndGet(2);
+            } else {
+                pending.put(playerName, delta);
+            }
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<String> joined = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+
+        synchronized (this) {
+            flushScheduled = false;
+            for (Map.Entry<String, Integer> e : pending.entrySet()) {
+                if (e.getValue() > 0) joined.add(e.getKey());
+                else left.add(e.getKey());
+            }
+            pending.clear();
+        }
+
+        if (joined.isEmpty() && left.isEmpty()) return;
+
+        try {
+            sink.send(joined, left);
+            postsSent.incrementAndGet();
+        } catch (Exception e) {
+            Bukkit.getLogger().warning("[DiscordLink] Join/leave relay failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes compressed HTTP response bodies as they are read and counts bytes on the wire against
+ * bytes after decoding. Requests should send {@link #ACCEPT_ENCODING}; servers that ignore it
+ * simply return identity bodies, which pass through untouched.
+ */
+public final class ResponseDecoder {
+
+    /**
+     * Encodings the JDK can decode without extra libraries.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong compressed = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    public InputStream decode(HttpResponse<InputStream> res) throws IOException {
+        return decode(res.headers().firstValue("Content-Encoding").orElse(null), res.body());
+    }
+
+    public InputStream decode(String contentEncoding, InputStream body) throws IOException {
+        responses.incrementAndGet();
+
+        String encoding = contentEncoding == null ? "" : contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || encoding.equals("identity")) {
+            return new Counting(body, wireBytes, decodedBytes);
+        }
+
+        InputStream wire = new Counting(body, wireBytes);
+        try {
+            InputStream decoded = switch (encoding) {
+                case "gzip", "x-gzip" -> new GZIPInputStream(wire, 8192);
+                case "deflate" -> new InflaterInputStream(wire);
+                default -> throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+            };
+            compressed.incrementAndGet();
+            return new Counting(decoded, decodedBytes);
+        } catch (IOException e) {
+            body.close();
+            throw e;
+        }
+    }
+
+    public String readString(HttpResponse<InputStream> res) throws IOException {
+        try (InputStream in = decode(res)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * For bodies already buffered by the client, e.g. responses of sendAsync.
+     */
+    public String decodeString(HttpResponse<byte[]> res) throws IOException {
+        String encoding = res.headers().firstValue("Content-Encoding").orElse(null);
+        try (InputStream in = decode(encoding, new ByteArrayInputStream(res.body() == null ? new byte[0] : res.body()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Bytes compression kept off the wire so far.
+     */
+    public long getSavedBytes() {
+        return Math.max(0L, decodedBytes.get() - wireBytes.get());
+    }
+
+    public String describeStats() {
+        long wire = wireBytes.get();
+        long decoded = decodedBytes.get();
+        return responses.get() + " responses (" + compressed.get() + " compressed)"
+                + ", " + (wire / 1024) + " KiB received"
+                + ", " + (getSavedBytes() / 1024) + " KiB saved"
+                + (decoded > 0 ? " (" + Math.round(100.0 * getSavedBytes() / decoded) + "%)" : "");
+    }
+
+    /**
+     * Counts bytes read through it. Identity bodies count towards both totals, so the
+     * saved figure only reflects compressed responses.
+     */
+    private static final class Counting extends FilterInputStream {
+        private final AtomicLong[] counters;
+
+        Counting(InputStream in, AtomicLong... counters) {
+            super(in);
+            this.counters = counters;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) add(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) add(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) add(skipped);
+            return skipped;
+        }
+
+        private void add(long n) {
+            for (AtomicLong counter : counters) counter.addAndGet(n);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hierarchical timing wheel for expiring state. Scheduling and cancelling are O(1), and one
+ * periodic call to {@link #advance} fires everything that has come due. Level 0 has a slot per
+ * tick, each higher level a slot per full turn of the level below; entries drop a level each time
+ * their slot comes round, until they reach level 0 and fire. Tasks run on the thread calling
+ * advance, outside the wheel's lock, and fire up to one tick late but never early. A task that
+ * throws is logged and counted; the rest still run.
+ */
+public final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Logger logger;
+    private final Timeout[][] heads = new Timeout[LEVELS][SLOTS];
+
+    // next tick to process
+    private long nextTick = 0L;
+    private int size = 0;
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public TimingWheel(long tickMillis, Logger logger) {
+        this.tickMillis = Math.max(1L, tickMillis);
+        this.startMillis = System.currentTimeMillis();
+        this.logger = logger;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public Timeout schedule(long delayMillis, Runnable task) {
+        return scheduleAt(System.currentTimeMillis() + Math.max(0L, delayMillis), task);
+    }
+
+    public synchronized Timeout scheduleAt(long deadlineMillis, Runnable task) {
+        long elapsed = deadlineMillis - startMillis;
+        // round up so nothing fires before its deadline
+        long tick = elapsed <= 0 ? 0L : (elapsed + tickMillis - 1) / tickMillis;
+
+        Timeout timeout = new Timeout(tick, task);
+        insert(timeout);
+        size++;
+        scheduled.incrementAndGet();
+        return timeout;
+    }
+
+    /**
+     * Processes every tick up to now and runs the tasks that came due.
+     */
+    public void advance(long nowMillis) {
+        List<Timeout> due = new ArrayList<>();
+
+        synchronized (this) {
+            long target = (nowMillis - startMillis) / tickMillis;
+            while (nextTick <= target) {
+                long tick = nextTick;
+                int slot = (int) (tick & MASK);
+
+                if (slot == 0) {
+                    for (int level = 1; level < LEVELS; level++) {
+                        int upper = (int) ((tick >>> (SLOT_BITS * level)) & MASK);
+                        cascade(level, upper);
+                        if (upper != 0) break;
+                    }
+                }
+
+                for (Timeout t = heads[0][slot]; t != null; ) {
+                    Timeout next = t.next;
+                    unlink(t);
+                    due.add(t);
+                    t = next;
+                }
+                nextTick++;
+            }
+            size -= due.size();
+        }
+
+        for (Timeout t : due) {
+            fired.incrementAndGet();
+            try {
+                t.task.run();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                logger.log(Level.WARNING, "Expiry task " + t.task + " failed", e);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public String describeStats() {
+        return size() + " pending, " + scheduled.get() + " scheduled, " + fired.get() + " fired, "
+                + cancelled.get() + " cancelled, " + failed.get() + " failed";
+    }
+
+    private void insert(Timeout t) {
+        long expires = Math.max(t.tick, nextTick);
+        long delta = expires - nextTick;
+        if (delta >= SPAN) {
+            // beyond the top level: park in its furthest slot and re-place when that comes round
+            expires = nextTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) level++;
+        link(t, level, (int) ((expires >>> (SLOT_BITS * level)) & MASK));
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout t = heads[level][slot];
+        heads[level][slot] = null;
+        while (t != null) {
+            Timeout next = t.next;
+            t.prev = null;
+            t.next = null;
+            t.level = -1;
+            insert(t);
+            t = next;
+        }
+    }
+
+    private void link(Timeout t, int level, int slot) {
+        Timeout head = heads[level][slot];
+        t.prev = null;
+        t.next = head;
+        if (head != null) head.prev = t;
+        heads[level][slot] = t;
+        t.level = level;
+        t.slot = slot;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else heads[t.level][t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+        t.level = -1;
+    }
+
+    public final class Timeout {
+        private final long tick;
+        private final Runnable task;
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1;
+        private int slot;
+
+        private Timeout(long tick, Runnable task) {
+            this.tick = tick;
+            this.task = task;
+        }
+
+        /**
+         * Returns false if the task already fired or was cancelled.
+         */
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (level < 0) return false;
+                unlink(this);
+                size--;
+                cancelled.incrementAndGet();
+                return true;
+            }
+        }
+    }
+}
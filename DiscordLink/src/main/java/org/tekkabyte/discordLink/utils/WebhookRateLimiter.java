@@ -0,0 +1,267 @@
+package org.tekkabyte.discordLink.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class WebhookRateLimiter {
+
+    private static final long UNKNOWN_STATE_WAIT_MILLIS = 250L;
+    private static final long DEFAULT_RETRY_MILLIS = 1000L;
+
+    private final long maxWaitMillis;
+
+    private final Map<String, String> routeToBucket = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final Object globalLock = new Object();
+    private volatile long globalResetAtMillis = 0L;
+
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    public WebhookRateLimiter(long maxWaitMillis) {
+        this.maxWaitMillis = Math.max(0L, maxWaitMillis);
+    }
+
+    /**
+     * Blocks until the route has budget left and reserves one request slot.
+     * Returns false when the wait would exceed the configured maximum.
+     */
+    public boolean acquire(String route) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+
+        while (true) {
+            long now = System.currentTimeMillis();
+
+            long globalWait = globalResetAtMillis - now;
+            if (globalWait > 0) {
+                if (now + globalWait > deadline) return false;
+                synchronized (globalLock) {
+                    globalLock.wait(globalWait);
+                }
+                continue;
+            }
+
+            Bucket bucket = bucketFor(route);
+            long wait = bucket.tryReserve(now);
+            if (wait <= 0) return true;
+            if (now + wait > deadline) return false;
+
+            bucket.await(wait);
+        }
+    }
+
+    /**
+     * Reserves one request slot if the route has budget now. Otherwise returns the milliseconds
+     * until it might, without waiting; 0 means the slot is reserved.
+     */
+    public long tryAcquire(String route) {
+        long now = System.currentTimeMillis();
+        long globalWait = globalResetAtMillis - now;
+        if (globalWait > 0) return globalWait;
+        return Math.max(0L, bucketFor(route).tryReserve(now));
+    }
+
+    /**
+     * Releases a slot reserved by {@link #acquire} or {@link #tryAcquire} and applies the rate limit headers of the response.
+     * Returns the number of milliseconds to hold off before retrying when the response was a 429.
+     */
+    public long complete(String route, int status, Function<String, String> headers) {
+        long now = System.currentTimeMillis();
+
+        String bucketHash = headers.apply("X-RateLimit-Bucket");
+        if (bucketHash != null && !bucketHash.isBlank()) {
+            String key = bucketHash + "|" + majorParameter(route);
+            String previous = routeToBucket.put(route, key);
+            if (!key.equals(previous)) {
+                Bucket old = buckets.get(previous == null ? route : previous);
+                Bucket moved = buckets.computeIfAbsent(key, k -> new Bucket());
+                if (old != null && old != moved) old.transferInFlightTo(moved);
+            }
+        }
+
+        Bucket bucket = bucketFor(route);
+
+        int limit = parseInt(headers.apply("X-RateLimit-Limit"), -1);
+        int remaining = parseInt(headers.apply("X-RateLimit-Remaining"), -1);
+        long resetAfterMillis = parseSecondsToMillis(headers.apply("X-RateLimit-Reset-After"), -1L);
+
+        if (status != 429) {
+            bucket.update(now, limit, remaining, resetAfterMillis);
+            return 0L;
+        }
+
+        long retryMillis = parseSecondsToMillis(headers.apply("Retry-After"), -1L);
+        if (retryMillis < 0) retryMillis = resetAfterMillis;
+        if (retryMillis < 0) retryMillis = DEFAULT_RETRY_MILLIS;
+
+        if (isGlobal(headers)) {
+            synchronized (globalLock) {
+                globalResetAtMillis = Math.max(globalResetAtMillis, now + retryMillis);
+            }
+            bucket.update(now, limit, remaining, resetAfterMillis);
+        } else {
+            bucket.update(now, limit, 0, retryMillis);
+        }
+        return retryMillis;
+    }
+
+    /**
+     * Releases a slot reserved by {@link #acquire} or {@link #tryAcquire} when no response was received.
+     */
+    public void cancel(String route) {
+        bucketFor(route).release();
+    }
+
+    /**
+     * Milliseconds until the route could be sent on without reserving anything; 0 when it is ready now.
+     */
+    public long delayFor(String route) {
+        long now = System.currentTimeMillis();
+        long globalWait = globalResetAtMillis - now;
+        if (globalWait > 0) return globalWait;
+        return bucketFor(route).delay(now);
+    }
+
+    public long minDelay(String[] routes) {
+        long best = Long.MAX_VALUE;
+        for (String route : routes) {
+            best = Math.min(best, delayFor(route));
+            if (best == 0L) break;
+        }
+        return best;
+    }
+
+    /**
+     * Picks the route to send on next: the soonest available, then the one with the most
+     * budget left. Ties rotate so equally idle routes share the load.
+     */
+    public String choose(String[] routes) {
+        if (routes.length == 1) return routes[0];
+
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(rotation.getAndIncrement(), routes.length);
+
+        String best = null;
+        long bestDelay = Long.MAX_VALUE;
+        int bestRemaining = -1;
+
+        for (int i = 0; i < routes.length; i++) {
+            String route = routes[(start + i) % routes.length];
+            Bucket bucket = bucketFor(route);
+            long delay = bucket.delay(now);
+            int remaining = bucket.remaining(now);
+
+            if (delay < bestDelay || (delay == bestDelay && remaining > bestRemaining)) {
+                best = route;
+                bestDelay = delay;
+                bestRemaining = remaining;
+            }
+        }
+        return best;
+    }
+
+    public boolean isGloballyLimited() {
+        return globalResetAtMillis > System.currentTimeMillis();
+    }
+
+    private Bucket bucketFor(String route) {
+        String key = routeToBucket.getOrDefault(route, route);
+        return buckets.computeIfAbsent(key, k -> new Bucket());
+    }
+
+    private static boolean isGlobal(Function<String, String> headers) {
+        if ("true".equalsIgnoreCase(headers.apply("X-RateLimit-Global"))) return true;
+        return "global".equalsIgnoreCase(headers.apply("X-RateLimit-Scope"));
+    }
+
+    private static String majorParameter(String route) {
+        int q = route.indexOf('?');
+        return q < 0 ? route : route.substring(0, q);
+    }
+
+    private static int parseInt(String s, int fallback) {
+        if (s == null || s.isBlank()) return fallback;
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static long parseSecondsToMillis(String s, long fallback) {
+        if (s == null || s.isBlank()) return fallback;
+        try {
+            return (long) Math.ceil(Double.parseDouble(s.trim()) * 1000.0);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static final class Bucket {
+        private int limit = 1;
+        private int remaining = 1;
+        private long resetAtMillis = 0L;
+        private int inFlight = 0;
+
+        synchronized long tryReserve(long now) {
+            if (resetAtMillis > 0 && now >= resetAtMillis) {
+                remaining = Math.max(1, limit - inFlight);
+                resetAtMillis = 0L;
+            }
+
+            if (remaining > 0) {
+                remaining--;
+                inFlight++;
+                return 0L;
+            }
+
+            return resetAtMillis > 0 ? resetAtMillis - now : UNKNOWN_STATE_WAIT_MILLIS;
+        }
+
+        synchronized int remaining(long now) {
+            if (resetAtMillis > 0 && now >= resetAtMillis) return Math.max(1, limit - inFlight);
+            return remaining;
+        }
+
+        synchronized long delay(long now) {
+            if (remaining > 0) return 0L;
+            if (resetAtMillis > 0) return Math.max(0L, resetAtMillis - now);
+            return UNKNOWN_STATE_WAIT_MILLIS;
+        }
+
+        synchronized void update(long now, int limit, int remaining, long resetAfterMillis) {
+            if (inFlight > 0) inFlight--;
+
+            if (limit > 0) this.limit = limit;
+            if (remaining >= 0) this.remaining = Math.max(0, remaining - inFlight);
+            if (resetAfterMillis >= 0) this.resetAtMillis = now + resetAfterMillis;
+
+            if (remaining < 0 && resetAfterMillis < 0 && this.resetAtMillis == 0L && this.remaining == 0) {
+                this.remaining = 1;
+            }
+
+            notifyAll();
+        }
+
+        synchronized void release() {
+            if (inFlight > 0) inFlight--;
+            if (resetAtMillis == 0L && remaining == 0) remaining = 1;
+            notifyAll();
+        }
+
+        synchronized void transferInFlightTo(Bucket other) {
+            int moving = inFlight;
+            inFlight = 0;
+            notifyAll();
+            synchronized (other) {
+                other.inFlight += moving;
+            }
+        }
+
+        synchronized void await(long millis) throws InterruptedException {
+            wait(Math.max(1L, millis));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BridgeCursorTest {
+
+    private static final Logger LOGGER = Logger.getLogger("BridgeCursorTest");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lateLowerIdIsAcceptedOnce() {
+        BridgeCursor cursor = BridgeCursor.load(dir.resolve("cursor.txt").toFile(), LOGGER);
+
+        assertTrue(cursor.tryAccept(10));
+        assertTrue(cursor.tryAccept(12));
+        assertEquals(10, cursor.accepted());
+
+        assertTrue(cursor.tryAccept(11));
+        assertEquals(12, cursor.accepted());
+        assertFalse(cursor.tryAccept(11));
+        assertFalse(cursor.tryAccept(12));
+    }
+
+    @Test
+    void appliedIdsAboveAGapAreNotAppliedAgainAfterRestart() throws Exception {
+        File file = dir.resolve("cursor.txt").toFile();
+        BridgeCursor cursor = BridgeCursor.load(file, LOGGER);
+
+        for (long id : new long[]{10, 12, 13, 15}) {
+            assertTrue(cursor.tryAccept(id));
+            cursor.markApplied(id);
+        }
+        cursor.saveIfDirty();
+        assertEquals("10 12-13 15", Files.readString(file.toPath(), StandardCharsets.UTF_8));
+
+        BridgeCursor restarted = BridgeCursor.load(file, LOGGER);
+        assertEquals(10, restarted.accepted());
+        // the refetch from 10 returns the gap ids and the applied ones again
+        assertTrue(restarted.tryAccept(11));
+        assertFalse(restarted.tryAccept(12));
+        assertFalse(restarted.tryAccept(13));
+        assertTrue(restarted.tryAccept(14));
+        assertFalse(restarted.tryAccept(15));
+        assertEquals(15, restarted.accepted());
+    }
+
+    @Test
+    void eventsStillWaitingAreFetchedAgainAfterRestart() throws Exception {
+        File file = dir.resolve("cursor.txt").toFile();
+        BridgeCursor cursor = BridgeCursor.load(file, LOGGER);
+
+        for (long id = 1; id <= 4; id++) assertTrue(cursor.tryAccept(id));
+        cursor.markApplied(1);
+        cursor.markApplied(3);
+        cursor.saveIfDirty();
+        assertEquals("1 3", Files.readString(file.toPath(), StandardCharsets.UTF_8));
+        assertEquals(1, cursor.pendingAck());
+
+        BridgeCursor restarted = BridgeCursor.load(file, LOGGER);
+        assertTrue(restarted.tryAccept(2));
+        assertFalse(restarted.tryAccept(3));
+        assertTrue(restarted.tryAccept(4));
+    }
+
+    @Test
+    void readsThePlainPositionFormat() throws Exception {
+        File file = dir.resolve("cursor.txt").toFile();
+        Files.writeString(file.toPath(), "42\n", StandardCharsets.UTF_8);
+
+        BridgeCursor cursor = BridgeCursor.load(file, LOGGER);
+        assertEquals(42, cursor.accepted());
+        assertFalse(cursor.tryAccept(42));
+        assertTrue(cursor.tryAccept(43));
+    }
+}
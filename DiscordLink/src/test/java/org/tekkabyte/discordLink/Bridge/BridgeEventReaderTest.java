@@ -0,0 +1,25 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BridgeEventReaderTest {
+
+    @Test
+    void readsLinkedEventFromThePayload() throws Exception {
+        String body = "[{\"id\":7,\"type\":\"linked\",\"payload\":{\"minecraft_uuid\":\"0f3c2b9e-52c4-4c55-9a43-5d1d3f0f8a11\",\"ts\":1}}]";
+        List<BridgeEvent> events = new ArrayList<>();
+
+        assertEquals(1, BridgeEventReader.read(new StringReader(body), events::add));
+        BridgeEvent event = events.get(0);
+        assertEquals(7L, event.id);
+        assertTrue(event.isLinked());
+        assertEquals("0f3c2b9e-52c4-4c55-9a43-5d1d3f0f8a11", event.minecraftUuid);
+    }
+}
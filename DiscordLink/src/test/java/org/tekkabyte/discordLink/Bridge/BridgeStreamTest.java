@@ -0,0 +1,235 @@
+package org.tekkabyte.discordLink.Bridge;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs BridgeStream against a local stand-in bridge that serves text/event-stream. Each connection
+ * the stream opens takes the next scripted response; once the script runs out, connections are
+ * held open with nothing to send.
+ */
+class BridgeStreamTest {
+
+    private static final Logger LOGGER = Logger.getLogger("BridgeStreamTest");
+
+    private interface Response {
+        void serve(HttpExchange exchange) throws Exception;
+    }
+
+    private record Request(String query, String lastEventId, long atNanos) {}
+
+    private final BlockingQueue<Response> script = new LinkedBlockingQueue<>();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private final List<BridgeEvent> received = new CopyOnWriteArrayList<>();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final AtomicLong cursor = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private BridgeStream stream;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.createContext("/stream", exchange -> {
+            requests.add(new Request(exchange.getRequestURI().getQuery(),
+                    exchange.getRequestHeaders().getFirst("Last-Event-ID"), System.nanoTime()));
+            Response next = script.poll();
+            try {
+                (next == null ? hold() : next).serve(exchange);
+            } catch (Exception ignored) {
+                // the client went away
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (stream != null) stream.stop();
+        released.countDown();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    @Test
+    void deliversEventsAndPausesPollingWhileConnected() throws Exception {
+        script.add(events(block(5, chat(5, "hello")), block(6, "[" + chat(6, "a") + "," + chat(7, "b") + "]")));
+        stream = start(100L, 1000L);
+
+        await(() -> received.size() == 3, "events delivered");
+        assertEquals(List.of(5L, 6L, 7L), received.stream().map(e -> e.id).toList());
+        assertEquals("hello", received.get(0).content);
+        assertTrue(received.get(0).isChat());
+        await(stream::isConnected, "connected");
+    }
+
+    @Test
+    void resumesFromTheCursorNotTheHighestIdReceived() throws Exception {
+        cursor.set(4L);
+        // 5 is still missing, so the cursor stays at 4 although 6 arrived
+        script.add(eventsThenClose(block(6, chat(6, "late gap"))));
+        stream = start(100L, 1000L);
+
+        await(() -> requests.size() >= 2, "reconnect");
+        Request first = requests.get(0);
+        Request second = requests.get(1);
+        assertTrue(first.query().contains("after=4"), first.query());
+        assertEquals("4", first.lastEventId());
+        assertTrue(second.query().contains("after=4"), second.query());
+        assertEquals("4", second.lastEventId());
+    }
+
+    @Test
+    void freshCursorSendsNoResumePosition() throws Exception {
+        stream = start(100L, 1000L);
+
+        await(() -> !requests.isEmpty(), "connect");
+        assertFalse(requests.get(0).query().contains("after="), requests.get(0).query());
+        assertNull(requests.get(0).lastEventId());
+    }
+
+    @Test
+    void backsOffFurtherAfterEachRefusedConnect() throws Exception {
+        for (int i = 0; i < 4; i++) script.add(refuse(503));
+        stream = start(100L, 5000L);
+
+        await(() -> requests.size() >= 5, "four retries");
+        long firstGap = gapMillis(0);
+        long lastGap = gapMillis(3);
+        // jittered between half and all of 100ms << failures: 100-200ms after one failure, 800-1600ms after four
+        assertTrue(firstGap < 400, "first gap " + firstGap);
+        assertTrue(lastGap >= 700, "fourth gap " + lastGap);
+    }
+
+    @Test
+    void connectionThatDiesAfterOpeningResetsTheBackoff() throws Exception {
+        for (int i = 0; i < 3; i++) script.add(refuse(503));
+        script.add(events(block(1, chat(1, "then silence"))));
+        stream = start(400L, 10_000L);
+
+        await(() -> received.size() == 1, "event after three refusals");
+        await(stream::isConnected, "connected");
+
+        // nothing arrives; the idle check kills the reader with an IOException
+        Thread.sleep(50);
+        stream.checkIdle(10L);
+
+        await(() -> requests.size() >= 5, "reconnect");
+        long gap = gapMillis(3);
+        // after a reset the next delay is 200-400ms; three more failures would make it 1600ms or more
+        assertTrue(gap < 1200, "reconnect gap " + gap);
+    }
+
+    @Test
+    void fallsBackToPollingWhenTheStreamCloses() throws Exception {
+        CountDownLatch closeNow = new CountDownLatch(1);
+        script.add(exchange -> {
+            open(exchange);
+            closeNow.await(5, TimeUnit.SECONDS);
+        });
+        script.add(refuse(503));
+        stream = start(1000L, 5000L);
+
+        await(stream::isConnected, "connected");
+        closeNow.countDown();
+        await(() -> !stream.isConnected(), "disconnected");
+        assertTrue(stream.describeStats().contains("1 drops"), stream.describeStats());
+    }
+
+    private BridgeStream start(long minBackoffMillis, long maxBackoffMillis) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/stream";
+        BridgeStream s = new BridgeStream(LOGGER, url, "test-server", "secret",
+                minBackoffMillis, maxBackoffMillis, cursor::get, received::addAll);
+        s.start();
+        return s;
+    }
+
+    private long gapMillis(int index) {
+        return TimeUnit.NANOSECONDS.toMillis(requests.get(index + 1).atNanos() - requests.get(index).atNanos());
+    }
+
+    private static String chat(long id, String content) {
+        return "{\"id\":" + id + ",\"type\":\"chat\",\"author\":\"tester\",\"content\":\"" + content + "\",\"ts\":0}";
+    }
+
+    private static String block(long id, String data) {
+        return "id: " + id + "\nevent: events\ndata: " + data + "\n\n";
+    }
+
+    private static OutputStream open(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        out.write(": connected\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        return out;
+    }
+
+    private static Response refuse(int status) {
+        return exchange -> exchange.sendResponseHeaders(status, -1);
+    }
+
+    // sends the blocks and keeps the connection open
+    private Response events(String... blocks) {
+        return exchange -> {
+            OutputStream out = open(exchange);
+            for (String b : blocks) out.write(b.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            released.await(30, TimeUnit.SECONDS);
+        };
+    }
+
+    private static Response eventsThenClose(String... blocks) {
+        return exchange -> {
+            OutputStream out = open(exchange);
+            for (String b : blocks) out.write(b.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        };
+    }
+
+    private Response hold() {
+        return exchange -> {
+            open(exchange);
+            released.await(30, TimeUnit.SECONDS);
+        };
+    }
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("timed out waiting for " + what);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.tekkabyte.discordLink.data;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link PendingLinkCodes#redeem} against a stand-in for the redeem_link_code RPC that answers
+ * with what each branch of supabase/redeem_link_code.sql returns, and checks the outcome and the
+ * reply the bot posts for it.
+ */
+class PendingLinkCodesTest {
+
+    private static final String UUID = "0f3c2b9e-52c4-4c55-9a43-5d1d3f0f8a11";
+
+    private final AtomicReference<String> response = new AtomicReference<>();
+    private final AtomicReference<String> request = new AtomicReference<>();
+
+    private HttpServer server;
+    private SupabaseData data;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rest/v1/rpc/redeem_link_code", exchange -> {
+            request.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] body = response.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        data = SupabaseData.open("http://127.0.0.1:" + server.getAddress().getPort(), "service-key", 2000L, 0);
+    }
+
+    @AfterEach
+    void stopServer() {
+        data.close();
+        server.stop(0);
+    }
+
+    @Test
+    void linked() throws Exception {
+        LinkRedemption result = redeem("{\"status\":\"linked\",\"minecraft_uuid\":\"" + UUID + "\",\"minecraft_username\":\"Steve\"}");
+
+        assertEquals(LinkRedemption.Outcome.LINKED, result.outcome());
+        assertEquals(UUID, result.minecraftUuid());
+        assertEquals("Steve", result.minecraftUsername());
+        assertNull(result.outcome().failureReply());
+
+        JsonObject args = JsonParser.parseString(request.get()).getAsJsonObject();
+        assertEquals("ABC123", args.get("p_code").getAsString());
+        assertEquals("123456789012345678", args.get("p_discord_id").getAsString());
+        assertTrue(args.get("p_one_to_one").getAsBoolean());
+    }
+
+    @Test
+    void unknownOrAlreadyUsedCode() throws Exception {
+        LinkRedemption result = redeem("{\"status\":\"invalid\"}");
+
+        assertEquals(LinkRedemption.Outcome.INVALID, result.outcome());
+        assertNull(result.minecraftUuid());
+        assertEquals("\u274C That code is invalid or already used.", result.outcome().failureReply());
+    }
+
+    @Test
+    void expiredCode() throws Exception {
+        LinkRedemption result = redeem("{\"status\":\"expired\"}");
+
+        assertEquals(LinkRedemption.Outcome.EXPIRED, result.outcome());
+        assertNull(result.minecraftUuid());
+        assertEquals("\u231B That code expired. Run `/link` in Minecraft again.", result.outcome().failureReply());
+    }
+
+    @Test
+    void minecraftAccountAlreadyLinked() throws Exception {
+        LinkRedemption result = redeem("{\"status\":\"minecraft_linked\",\"minecraft_uuid\":\"" + UUID + "\",\"minecraft_username\":\"Steve\"}");
+
+        assertEquals(LinkRedemption.Outcome.MINECRAFT_ALREADY_LINKED, result.outcome());
+        assertEquals(UUID, result.minecraftUuid());
+        assertEquals("\u274C That Minecraft account is already linked.", result.outcome().failureReply());
+    }
+
+    @Test
+    void discordAccountAlreadyLinked() throws Exception {
+        LinkRedemption result = redeem("{\"status\":\"discord_linked\",\"minecraft_uuid\":\"" + UUID + "\",\"minecraft_username\":\"Steve\"}");
+
+        assertEquals(LinkRedemption.Outcome.DISCORD_ALREADY_LINKED, result.outcome());
+        assertEquals("\u274C Your Discord account is already linked to a Minecraft account.", result.outcome().failureReply());
+    }
+
+    @Test
+    void unknownStatusFails() {
+        response.set("{\"status\":\"banana\"}");
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> data.pendingCodes().redeem("ABC123", "123456789012345678", "tester#0", true).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private LinkRedemption redeem(String body) throws Exception {
+        response.set(body);
+        return SupabaseData.await(data.pendingCodes().redeem("ABC123", "123456789012345678", "tester#0", true));
+    }
+}
@@ -0,0 +1,68 @@
+package org.tekkabyte.discordLink.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PendingLinksTest {
+
+    private static final Duration MIN_REMAINING = Duration.ofSeconds(30);
+
+    private final PendingLinks pending = new PendingLinks();
+    private final UUID player = UUID.fromString("0f3c2b9e-52c4-4c55-9a43-5d1d3f0f8a11");
+
+    @Test
+    void linkRedeemThenLinkAgainDoesNotReuseTheCode() {
+        IssuedLinkCode issued = code("ABC123", Duration.ofMinutes(5));
+
+        // /link
+        pending.put(player, issued);
+        // /link again before redeeming shows the same code
+        assertSame(issued, pending.reusable(player, MIN_REMAINING));
+
+        // the bot redeems it
+        assertEquals(player, pending.redeemed(player.toString()));
+
+        // /link again goes back to Supabase
+        assertNull(pending.reusable(player, MIN_REMAINING));
+        assertFalse(pending.contains(player));
+    }
+
+    @Test
+    void codeAboutToExpireIsNotReused() {
+        pending.put(player, code("ABC123", Duration.ofSeconds(10)));
+        assertNull(pending.reusable(player, MIN_REMAINING));
+    }
+
+    @Test
+    void lateExpiryKeepsANewerCode() {
+        IssuedLinkCode old = code("OLD111", Duration.ofMinutes(1));
+        IssuedLinkCode fresh = code("NEW222", Duration.ofMinutes(5));
+        pending.put(player, old);
+        pending.put(player, fresh);
+
+        pending.expire(player, old);
+        assertSame(fresh, pending.reusable(player, MIN_REMAINING));
+    }
+
+    @Test
+    void redeemedIgnoresIdsThatAreNotUuids() {
+        pending.put(player, code("ABC123", Duration.ofMinutes(5)));
+
+        assertNull(pending.redeemed(null));
+        assertNull(pending.redeemed("not-a-uuid"));
+        assertTrue(pending.contains(player));
+    }
+
+    private static IssuedLinkCode code(String code, Duration ttl) {
+        return new IssuedLinkCode(code, Instant.now().plus(ttl));
+    }
+}
@@ -0,0 +1,111 @@
+package org.tekkabyte.discordLink.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DiscordText must produce exactly what the replace/replaceAll chains it replaced produced, on the
+ * same relay path: ChatListener escaping, the webhook chat line with mentions neutralized, and the
+ * bot's Discord-to-Minecraft mention breaking.
+ */
+class DiscordTextTest {
+
+    // Bukkit's ChatColor.stripColor pattern
+    private static final Pattern STRIP_COLOR = Pattern.compile("(?i)\u00A7[0-9A-FK-ORX]");
+
+    private static final String[] WORDS = {
+            "hey", "anyone", "want", "to", "trade", "diamonds", "at", "spawn", "lol", "gg", "brb",
+            "*nice*", "__under__", "~~no~~", "`code`", "@everyone", "@here", "@everyonex", "@@here",
+            "<@123456789012345678>", "<@!123456789012345678>", "<@&987654321098765432>", "<@>", "<@&>",
+            "<@&12a>", "<<@1>>", "<@<@1>>", "\u00A7cred", "\u00A7lbold\u00A7r", "\u00A7", "\u00A7\u00A7a",
+            "\u00A7zz", "\\*", "mail@example.com", "\uD83D\uDE00", "caf\u00e9", " ", "\t", "\u200B"
+    };
+
+    private static final String[] SAMPLES = {
+            "",
+            "   ",
+            "plain chat",
+            "@everyone look",
+            "ping <@123> and <@!456> and <@&789>",
+            "<@&<@1>>",
+            "\u00A7c*red*\u00A7r _under_ ~strike~ `code`",
+            "  <@everyone>  ",
+            "@here@everyone@here"
+    };
+
+    @Test
+    void samplesMatchOldChains() {
+        for (String s : SAMPLES) {
+            assertSameAsChains("Player", s, s);
+        }
+    }
+
+    @Test
+    void nullsAreEmpty() {
+        assertEquals("", DiscordText.escapeMinecraftChat(null));
+        assertEquals("", DiscordText.neutralizeMentions(null));
+        assertEquals("", DiscordText.breakMentions(null));
+    }
+
+    @Test
+    void randomChatMatchesOldChains() {
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            assertSameAsChains("Player_" + random.nextInt(200), sentence(random), sentence(random));
+        }
+    }
+
+    private static void assertSameAsChains(String player, String chat, String fromDiscord) {
+        String message = escapeChain(chat);
+        assertEquals(message, DiscordText.escapeMinecraftChat(chat), () -> "escape: " + chat);
+        assertEquals(mentionsChain("**" + player + "**: " + message), DiscordText.formatChatLine(player, message),
+                () -> "chat line: " + chat);
+        assertEquals(mentionsChain(message), DiscordText.neutralizeMentions(message), () -> "mentions: " + chat);
+        assertEquals(breakChain(fromDiscord), DiscordText.breakMentions(fromDiscord), () -> "bot: " + fromDiscord);
+    }
+
+    // ChatListener before DiscordText
+    private static String escapeChain(String s) {
+        s = STRIP_COLOR.matcher(s).replaceAll("");
+        return s
+                .replace("*", "\\*")
+                .replace("_", "\\_")
+                .replace("~", "\\~")
+                .replace("`", "\\`");
+    }
+
+    // DiscordWebhook before DiscordText
+    private static String mentionsChain(String s) {
+        return s
+                .replace("@everyone", "@\u200Beveryone")
+                .replace("@here", "@\u200Bhere")
+                .replaceAll("<@&\\d+>", "[role]")
+                .replaceAll("<@!?\\d+>", "[user]");
+    }
+
+    // BotListener before DiscordText
+    private static String breakChain(String text) {
+        String s = text;
+        s = s.replace("@everyone", "@\u200Beveryone")
+                .replace("@here", "@\u200Bhere");
+        s = s.replace("<@&", "<@\u200B&")
+                .replace("<@!", "<@\u200B!")
+                .replace("<@", "<@\u200B");
+        return s.trim();
+    }
+
+    // words are joined with and without spaces so mentions and codes also meet across word edges
+    private static String sentence(Random random) {
+        int words = random.nextInt(12);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0 && random.nextBoolean()) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
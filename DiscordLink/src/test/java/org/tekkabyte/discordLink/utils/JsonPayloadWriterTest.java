@@ -0,0 +1,153 @@
+package org.tekkabyte.discordLink.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * JsonPayloadWriter must produce exactly the bytes the old Gson encoding sent:
+ * {@code JsonObject.toString().getBytes(UTF_8)}.
+ */
+class JsonPayloadWriterTest {
+
+    private static final String[] SAMPLES = {
+            "",
+            "plain ascii",
+            "\u0000\u0001\u0007\b\t\n\u000b\f\r\u001b\u001f\u007f",
+            "quote \" backslash \\ slash /",
+            "html <b>&amp;</b> a='b' c=d",
+            "line\u2028separator\u2029paragraph",
+            "emoji \uD83D\uDE00 \uD83C\uDDF3\uD83C\uDDF1 pair",
+            "lone \uD83D high and \uDE00 low",
+            "latin \u00e9\u00df, cjk \u4e2d\u6587, rtl \u05e9\u05dc\u05d5\u05dd",
+            "\u00a7cformatted \u00a7lchat\u00a7r",
+            "zero\u200bwidth\ufeffbom"
+    };
+
+    private static final String SPECIAL = "\"\\<>&='\u2028\u2029";
+
+    @Test
+    void stringValuesMatchGson() {
+        for (String s : SAMPLES) {
+            JsonObject expected = new JsonObject();
+            expected.addProperty("content", s);
+            expected.addProperty(s, "as a name");
+
+            byte[] actual = JsonPayloadWriter.acquire()
+                    .beginObject()
+                    .field("content", s)
+                    .field(s, "as a name")
+                    .endObject()
+                    .toByteArray();
+
+            assertSame(expected, actual, s);
+        }
+    }
+
+    @Test
+    void everyBmpCharacterMatchesGson() {
+        StringBuilder sb = new StringBuilder();
+        for (char c = 0; c < Character.MAX_VALUE; c++) sb.append(c);
+        String all = sb.toString();
+
+        JsonObject expected = new JsonObject();
+        expected.addProperty("all", all);
+
+        byte[] actual = JsonPayloadWriter.acquire().beginObject().field("all", all).endObject().toByteArray();
+        assertSame(expected, actual, "all BMP characters");
+    }
+
+    @Test
+    void embedsMatchGson() {
+        JsonObject expected = new JsonObject();
+        expected.addProperty("content", "<@&123> Report filed by <@456>");
+        JsonArray embeds = new JsonArray();
+        JsonObject embed = new JsonObject();
+        embed.addProperty("title", "\uD83D\uDEA9 New Report");
+        embed.addProperty("timestamp", 1700000000000L);
+        JsonArray fields = new JsonArray();
+        for (String s : SAMPLES) {
+            JsonObject field = new JsonObject();
+            field.addProperty("name", "Reason");
+            field.addProperty("value", s);
+            field.addProperty("inline", s.length() % 2 == 0);
+            fields.add(field);
+        }
+        embed.add("fields", fields);
+        embeds.add(embed);
+        expected.add("embeds", embeds);
+        expected.add("allowed_mentions", JsonParser.parseString("{\"parse\":[],\"users\":[],\"roles\":[]}"));
+
+        JsonPayloadWriter w = JsonPayloadWriter.acquire()
+                .beginObject()
+                .field("content", "<@&123> Report filed by <@456>")
+                .name("embeds").beginArray()
+                    .beginObject()
+                    .field("title", "\uD83D\uDEA9 New Report")
+                    .name("timestamp").value(1700000000000L)
+                    .name("fields").beginArray();
+        for (String s : SAMPLES) {
+            w.beginObject()
+                    .field("name", "Reason")
+                    .field("value", s)
+                    .field("inline", s.length() % 2 == 0)
+                    .endObject();
+        }
+        byte[] actual = w.endArray()
+                    .endObject()
+                .endArray()
+                .name("allowed_mentions").rawValue(JsonPayloadWriter.preEncode("{\"parse\":[],\"users\":[],\"roles\":[]}"))
+                .endObject()
+                .toByteArray();
+
+        assertSame(expected, actual, "report embed");
+    }
+
+    @Test
+    void randomStringsMatchGson() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            String s = randomString(random);
+
+            JsonObject expected = new JsonObject();
+            expected.addProperty("v", s);
+            byte[] actual = JsonPayloadWriter.acquire().beginObject().field("v", s).endObject().toByteArray();
+
+            assertSame(expected, actual, s);
+        }
+    }
+
+    private static String randomString(Random random) {
+        int length = random.nextInt(40);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(5)) {
+                case 0 -> sb.append((char) random.nextInt(0x20));
+                case 1 -> sb.append(SPECIAL.charAt(random.nextInt(SPECIAL.length())));
+                case 2 -> sb.appendCodePoint(0x10000 + random.nextInt(0x100000));
+                case 3 -> sb.append((char) (0xD800 + random.nextInt(0x800)));
+                default -> sb.append((char) random.nextInt(0x10000));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void assertSame(JsonObject expected, byte[] actual, String input) {
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), actual, () -> "input: " + escape(input));
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c < 0x20 || c > 0x7e) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
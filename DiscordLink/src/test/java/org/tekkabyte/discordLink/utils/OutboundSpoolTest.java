@@ -0,0 +1,109 @@
+package org.tekkabyte.discordLink.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundSpoolTest {
+
+    private static final Logger LOGGER = Logger.getLogger("OutboundSpoolTest");
+    private static final int SEGMENT_SIZE = 64 * 1024;
+    private static final String URL = "https://discord.test/api/webhooks/1/token";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reportsPastTheSegmentCapAreKeptAndOtherKindsRefused() throws Exception {
+        File spoolDir = dir.toFile();
+        OutboundSpool spool = new OutboundSpool(spoolDir, SEGMENT_SIZE, 2, LOGGER);
+
+        // three segments' worth of reports with a cap of two
+        for (int i = 0; i < 12; i++) {
+            assertNotNull(spool.append(OutboundKind.REPORT, URL, body("report " + i, 16 * 1024)), "report " + i);
+        }
+        assertEquals(12, spool.pendingCount());
+        assertNull(spool.append(OutboundKind.CHAT, URL, body("chat", 16 * 1024)));
+        assertEquals(0, spool.getDroppedEntries());
+        spool.close();
+
+        assertEquals(12, reportsAfterRestart(spoolDir));
+    }
+
+    @Test
+    void compactionDropsOtherKindsButKeepsEveryReport() throws Exception {
+        File spoolDir = dir.toFile();
+        OutboundSpool spool = new OutboundSpool(spoolDir, SEGMENT_SIZE, 2, LOGGER);
+
+        int reports = 0;
+        for (int i = 0; i < 32; i++) {
+            OutboundKind kind = i % 4 == 0 ? OutboundKind.REPORT : OutboundKind.CHAT;
+            assertNotNull(spool.append(kind, URL, body(kind + " " + i, 12 * 1024)), kind + " " + i);
+            if (kind == OutboundKind.REPORT) reports++;
+        }
+        assertTrue(spool.getDroppedEntries() > 0);
+        spool.close();
+
+        assertEquals(reports, reportsAfterRestart(spoolDir));
+    }
+
+    @Test
+    void inFlightReportMovedByCompactionSettlesThroughTheOriginalEntry() throws Exception {
+        File spoolDir = dir.toFile();
+        OutboundSpool spool = new OutboundSpool(spoolDir, SEGMENT_SIZE, 2, LOGGER);
+
+        OutboundSpool.Entry report = spool.append(OutboundKind.REPORT, URL, body("report", 12 * 1024));
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(spool.append(OutboundKind.CHAT, URL, body("chat " + i, 12 * 1024)));
+        }
+        assertTrue(spool.getDroppedEntries() > 0);
+
+        spool.markDone(report);
+        spool.close();
+
+        assertEquals(0, reportsAfterRestart(spoolDir));
+    }
+
+    @Test
+    void releasedReportStaysPendingAndDoneOneDoesNot() throws Exception {
+        OutboundSpool spool = new OutboundSpool(dir.toFile(), SEGMENT_SIZE, 2, LOGGER);
+
+        OutboundSpool.Entry released = spool.append(OutboundKind.REPORT, URL, body("retry later", 64));
+        OutboundSpool.Entry delivered = spool.append(OutboundKind.REPORT, URL, body("sent", 64));
+        spool.release(released);
+        spool.markDone(delivered);
+
+        assertFalse(released.isDone());
+        assertTrue(delivered.isDone());
+        assertEquals(1, spool.pendingCount());
+        spool.close();
+    }
+
+    private static int reportsAfterRestart(File spoolDir) throws Exception {
+        OutboundSpool reopened = new OutboundSpool(spoolDir, SEGMENT_SIZE, 2, LOGGER);
+        try {
+            List<OutboundSpool.Entry> pending = reopened.takePending();
+            return (int) pending.stream().filter(e -> e.kind() == OutboundKind.REPORT).count();
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static byte[] body(String label, int size) {
+        byte[] bytes = new byte[size];
+        byte[] text = label.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(text, 0, bytes, 0, text.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,58 @@
+-- Issues a /link code in one round trip. Run once in the Supabase SQL editor.
+--
+-- Returns {"status":"linked"} when the account is already linked, otherwise the player's live
+-- code if they still have one, or a fresh collision-free code:
+--   {"status":"issued","code":"AB12CD","expires_at":"..."}
+--
+-- minecraft_uuid is compared as text; cast it if your column is of type uuid.
+
+create or replace function issue_link_code(
+    p_minecraft_uuid text,
+    p_minecraft_username text,
+    p_ttl_seconds integer default 300
+) returns json
+language plpgsql
+as $$
+declare
+    chars constant text := 'ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789';
+    v_code text;
+    v_expires timestamptz;
+begin
+    -- concurrent calls for the same player wait here, so they get the same code; the linked
+    -- check comes after the lock so a caller that waited still sees a link made in the meantime
+    perform pg_advisory_xact_lock(hashtext('issue_link_code:' || p_minecraft_uuid));
+
+    if exists (select 1 from account_links where minecraft_uuid = p_minecraft_uuid) then
+        return json_build_object('status', 'linked');
+    end if;
+
+    -- codes about to expire are replaced rather than handed out again
+    delete from pending_link_codes
+     where minecraft_uuid = p_minecraft_uuid
+       and expires_at <= now() + interval '30 seconds';
+
+    select code, expires_at into v_code, v_expires
+      from pending_link_codes
+     where minecraft_uuid = p_minecraft_uuid
+     order by expires_at desc
+     limit 1;
+
+    if v_code is not null then
+        return json_build_object('status', 'issued', 'code', v_code, 'expires_at', v_expires);
+    end if;
+
+    v_expires := now() + make_interval(secs => greatest(p_ttl_seconds, 1));
+    loop
+        select string_agg(substr(chars, 1 + floor(random() * length(chars))::integer, 1), '')
+          into v_code
+          from generate_series(1, 6);
+        begin
+            insert into pending_link_codes (code, minecraft_uuid, minecraft_username, expires_at)
+            values (v_code, p_minecraft_uuid, p_minecraft_username, v_expires);
+            return json_build_object('status', 'issued', 'code', v_code, 'expires_at', v_expires);
+        exception when unique_violation then
+            -- code already taken by another player; draw again
+        end;
+    end loop;
+end;
+$$;
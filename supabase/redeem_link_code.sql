@@ -0,0 +1,88 @@
+-- Redeems a /link code for a Discord user in one transaction. Run once in the Supabase SQL editor.
+--
+-- Returns {"status": ..., "minecraft_uuid": ..., "minecraft_username": ...} where status is one of
+--   linked              the link was written and the code consumed
+--   invalid             no such code (or already used)
+--   expired             the code expired; it is deleted
+--   minecraft_linked    (one-to-one) the Minecraft account is already linked; the code is deleted
+--   discord_linked      (one-to-one) the Discord account is already linked; the code is kept
+--
+-- Needs a unique constraint on account_links.minecraft_uuid.
+--
+-- PendingLinkCodes.redeem maps each status to a LinkRedemption.Outcome, and the bot posts
+-- Outcome.failureReply() for anything but linked (see PendingLinkCodesTest). To exercise each
+-- branch by hand in the SQL editor, start from one pending code:
+--
+--   insert into pending_link_codes (code, minecraft_uuid, minecraft_username, expires_at)
+--   values ('TEST01', '00000000-0000-0000-0000-000000000001', 'Tester', now() + interval '5 minutes');
+--
+--   linked            select redeem_link_code('TEST01', '111', 'tester#0');
+--   invalid           run the same call again: the code was consumed
+--   minecraft_linked  re-insert TEST01, then redeem it as another user:
+--                     select redeem_link_code('TEST01', '222', 'other#0');
+--   discord_linked    insert TEST02 for '00000000-0000-0000-0000-000000000002', then
+--                     select redeem_link_code('TEST02', '111', 'tester#0');
+--   expired           insert TEST03 with expires_at = now() - interval '1 minute' and redeem it
+--
+-- Clean up with: delete from account_links where discord_id in ('111', '222');
+--                delete from pending_link_codes where code like 'TEST0%';
+
+create or replace function redeem_link_code(
+    p_code text,
+    p_discord_id text,
+    p_discord_tag text,
+    p_one_to_one boolean default true
+) returns json
+language plpgsql
+as $$
+declare
+    v_pending pending_link_codes%rowtype;
+begin
+    -- a second redeem of the same code waits here and then finds it gone
+    select * into v_pending
+      from pending_link_codes
+     where code = p_code
+       for update;
+
+    if not found then
+        return json_build_object('status', 'invalid');
+    end if;
+
+    if v_pending.expires_at <= now() then
+        delete from pending_link_codes where code = p_code;
+        return json_build_object('status', 'expired');
+    end if;
+
+    if p_one_to_one then
+        -- one Discord user redeeming two codes at once must not end up with two links
+        perform pg_advisory_xact_lock(hashtext('redeem_link_code:' || p_discord_id));
+
+        if exists (select 1 from account_links where minecraft_uuid = v_pending.minecraft_uuid) then
+            delete from pending_link_codes where code = p_code;
+            return json_build_object('status', 'minecraft_linked',
+                                     'minecraft_uuid', v_pending.minecraft_uuid,
+                                     'minecraft_username', v_pending.minecraft_username);
+        end if;
+
+        if exists (select 1 from account_links where discord_id = p_discord_id) then
+            return json_build_object('status', 'discord_linked',
+                                     'minecraft_uuid', v_pending.minecraft_uuid,
+                                     'minecraft_username', v_pending.minecraft_username);
+        end if;
+    end if;
+
+    insert into account_links (minecraft_uuid, minecraft_username, discord_id, discord_tag, linked_at)
+    values (v_pending.minecraft_uuid, v_pending.minecraft_username, p_discord_id, p_discord_tag, now())
+    on conflict (minecraft_uuid) do update
+        set minecraft_username = excluded.minecraft_username,
+            discord_id = excluded.discord_id,
+            discord_tag = excluded.discord_tag,
+            linked_at = excluded.linked_at;
+
+    delete from pending_link_codes where code = p_code;
+
+    return json_build_object('status', 'linked',
+                             'minecraft_uuid', v_pending.minecraft_uuid,
+                             'minecraft_username', v_pending.minecraft_username);
+end;
+$$;